@@ -0,0 +1,119 @@
+package com.ksm.querydslstudy.mapper;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * {@code @GenerateMapper} 를 붙인 DTO 마다 XxxMapper 를 생성한다.
+ * 생성된 매퍼는 Projections.bean/fields/constructor 와 달리 리플렉션 없이 생성자/setter 를 직접 호출한다.
+ * 붙였는데 매퍼를 만들 수 없는 타입(제네릭, 컬렉션 값, 생성자/setter 없음 등)은 컴파일 오류로 알린다.
+ * 어노테이션은 본 프로젝트에 있으므로 이름으로 찾는다.
+ */
+@SupportedAnnotationTypes(DtoMapperProcessor.MARKER)
+public class DtoMapperProcessor extends AbstractProcessor {
+
+    static final String MARKER = "com.ksm.querydslstudy.mapper.GenerateMapper";
+    static final String SUFFIX = "Mapper";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                TypeElement type = (TypeElement) element;
+                String problem = unsupported(type);
+                if (problem == null) {
+                    generate(type);
+                } else {
+                    error(type, "cannot generate " + type.getQualifiedName() + SUFFIX + ": " + problem);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) {
+        String mapperName = type.getQualifiedName() + SUFFIX;
+        if (!generated.add(mapperName) || processingEnv.getElementUtils().getTypeElement(mapperName) != null) {
+            return;
+        }
+        MapperModel model = MapperModel.resolve(type, processingEnv.getTypeUtils());
+        if (model == null) {
+            error(type, "cannot generate " + mapperName + ": no constructor or setters to map");
+            return;
+        }
+        for (MapperModel.Property property : model.properties) {
+            if (isContainer(property.type())) {
+                error(type, "cannot generate " + mapperName + ": " + property.name()
+                        + " is a collection or map, which a single row cannot fill");
+                return;
+            }
+        }
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(mapperName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(new MapperWriter(model, getClass().getName()).write());
+            }
+        } catch (IOException e) {
+            error(type, "failed to write " + mapperName + ": " + e.getMessage());
+        }
+    }
+
+    private void error(TypeElement type, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, type);
+    }
+
+    //최상위 public 구체 클래스/레코드만 된다, 안 되면 이유
+    private String unsupported(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS && type.getKind() != ElementKind.RECORD) {
+            return "only classes and records are supported";
+        }
+        if (!(type.getEnclosingElement() instanceof PackageElement)) {
+            return "only top-level types are supported";
+        }
+        if (!type.getModifiers().contains(Modifier.PUBLIC) || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "the type must be public and concrete";
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            return "generic types are not supported";
+        }
+        TypeMirror throwable = processingEnv.getElementUtils().getTypeElement("java.lang.Throwable").asType();
+        if (processingEnv.getTypeUtils().isAssignable(type.asType(), throwable)) {
+            return "exceptions are not projections";
+        }
+        return null;
+    }
+
+    private boolean isContainer(TypeMirror type) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror erased = types.erasure(type);
+        for (String container : new String[]{"java.util.Collection", "java.util.Map"}) {
+            TypeMirror containerType = types.erasure(processingEnv.getElementUtils().getTypeElement(container).asType());
+            if (types.isAssignable(erased, containerType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
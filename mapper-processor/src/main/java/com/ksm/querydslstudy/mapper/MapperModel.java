@@ -0,0 +1,163 @@
+package com.ksm.querydslstudy.mapper;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO 를 어떻게 만들지(생성자 or 기본 생성자 + setter)와 매핑할 값 목록.
+ * 생성자는 레코드 canonical -> @QueryProjection -> 필드와 타입/순서가 같은 생성자(@AllArgsConstructor)
+ * -> 기본 생성자 + setter -> 유일한 public 생성자 순으로 고른다.
+ */
+final class MapperModel {
+
+    enum Strategy {
+        CONSTRUCTOR, SETTERS
+    }
+
+    record Property(String name, TypeMirror type, String setter) {
+    }
+
+    private static final String QUERY_PROJECTION = "com.querydsl.core.annotations.QueryProjection";
+    private static final String ALL_ARGS_CONSTRUCTOR = "lombok.AllArgsConstructor";
+    private static final String NO_ARGS_CONSTRUCTOR = "lombok.NoArgsConstructor";
+    private static final String DATA = "lombok.Data";
+    private static final String SETTER = "lombok.Setter";
+
+    final TypeElement type;
+    final Strategy strategy;
+    final List<Property> properties;
+
+    private MapperModel(TypeElement type, Strategy strategy, List<Property> properties) {
+        this.type = type;
+        this.strategy = strategy;
+        this.properties = properties;
+    }
+
+    //매핑할 방법이 없으면 null
+    static MapperModel resolve(TypeElement type, Types types) {
+        if (type.getKind() == ElementKind.RECORD) {
+            List<Property> components = new ArrayList<>();
+            for (RecordComponentElement component : type.getRecordComponents()) {
+                components.add(new Property(component.getSimpleName().toString(), component.asType(), null));
+            }
+            return constructor(type, components);
+        }
+
+        List<VariableElement> fields = instanceFields(type);
+        List<ExecutableElement> constructors = publicConstructors(type);
+
+        for (ExecutableElement constructor : constructors) {
+            if (hasAnnotation(constructor, QUERY_PROJECTION)) {
+                return constructor(type, parameters(constructor));
+            }
+        }
+        //lombok 이 먼저 돌았으면 @AllArgsConstructor 생성자가 보이고, 아니면 어노테이션으로 판단한다
+        for (ExecutableElement constructor : constructors) {
+            if (!fields.isEmpty() && matchesFields(constructor, fields, types)) {
+                return constructor(type, parameters(constructor));
+            }
+        }
+        if (!fields.isEmpty() && hasAnnotation(type, ALL_ARGS_CONSTRUCTOR)) {
+            List<Property> properties = new ArrayList<>();
+            for (VariableElement field : fields) {
+                properties.add(new Property(field.getSimpleName().toString(), field.asType(), null));
+            }
+            return constructor(type, properties);
+        }
+        MapperModel setters = setters(type, fields, constructors, types);
+        if (setters != null) {
+            return setters;
+        }
+        List<ExecutableElement> withParameters = constructors.stream()
+                .filter(constructor -> !constructor.getParameters().isEmpty())
+                .toList();
+        return withParameters.size() == 1 ? constructor(type, parameters(withParameters.get(0))) : null;
+    }
+
+    private static MapperModel constructor(TypeElement type, List<Property> properties) {
+        return properties.isEmpty() ? null : new MapperModel(type, Strategy.CONSTRUCTOR, properties);
+    }
+
+    private static MapperModel setters(TypeElement type, List<VariableElement> fields,
+                                       List<ExecutableElement> constructors, Types types) {
+        boolean noArgs = hasAnnotation(type, NO_ARGS_CONSTRUCTOR)
+                || constructors.stream().anyMatch(constructor -> constructor.getParameters().isEmpty());
+        if (!noArgs || fields.isEmpty()) {
+            return null;
+        }
+        boolean lombokSetters = hasAnnotation(type, DATA) || hasAnnotation(type, SETTER);
+        List<Property> properties = new ArrayList<>();
+        for (VariableElement field : fields) {
+            String name = field.getSimpleName().toString();
+            String setter = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            boolean settable = !field.getModifiers().contains(Modifier.FINAL)
+                    && (lombokSetters || hasAnnotation(field, SETTER) || hasSetter(type, setter, field.asType(), types));
+            if (!settable) {
+                return null;
+            }
+            properties.add(new Property(name, field.asType(), setter));
+        }
+        return new MapperModel(type, Strategy.SETTERS, properties);
+    }
+
+    private static List<VariableElement> instanceFields(TypeElement type) {
+        return ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
+                .filter(field -> !field.getModifiers().contains(Modifier.STATIC))
+                .toList();
+    }
+
+    private static List<ExecutableElement> publicConstructors(TypeElement type) {
+        return ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .filter(constructor -> constructor.getModifiers().contains(Modifier.PUBLIC))
+                .toList();
+    }
+
+    private static boolean matchesFields(ExecutableElement constructor, List<VariableElement> fields, Types types) {
+        List<? extends VariableElement> parameters = constructor.getParameters();
+        if (parameters.size() != fields.size()) {
+            return false;
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            if (!types.isSameType(parameters.get(i).asType(), fields.get(i).asType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Property> parameters(ExecutableElement constructor) {
+        List<Property> properties = new ArrayList<>();
+        for (VariableElement parameter : constructor.getParameters()) {
+            properties.add(new Property(parameter.getSimpleName().toString(), parameter.asType(), null));
+        }
+        return properties;
+    }
+
+    private static boolean hasSetter(TypeElement type, String name, TypeMirror parameterType, Types types) {
+        return ElementFilter.methodsIn(type.getEnclosedElements()).stream()
+                .anyMatch(method -> method.getSimpleName().contentEquals(name)
+                        && method.getModifiers().contains(Modifier.PUBLIC)
+                        && method.getParameters().size() == 1
+                        && types.isSameType(method.getParameters().get(0).asType(), parameterType));
+    }
+
+    private static boolean hasAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
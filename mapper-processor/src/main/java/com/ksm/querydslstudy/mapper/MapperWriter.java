@@ -0,0 +1,154 @@
+package com.ksm.querydslstudy.mapper;
+
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * XxxMapper 소스 생성.
+ * <pre>
+ * queryFactory.select(UserDtoMapper.projection(member.username, member.age)) //별칭 없이 순서대로
+ * UserDto dto = UserDtoMapper.map(tuple);                                     //Tuple 을 바로 변환
+ * </pre>
+ */
+final class MapperWriter {
+
+    private final MapperModel model;
+    private final String generator;
+    private final String dto;
+    private final String mapper;
+
+    MapperWriter(MapperModel model, String generator) {
+        this.model = model;
+        this.generator = generator;
+        this.dto = model.type.getSimpleName().toString();
+        this.mapper = dto + DtoMapperProcessor.SUFFIX;
+    }
+
+    String write() {
+        StringBuilder src = new StringBuilder();
+        String pkg = ((PackageElement) model.type.getEnclosingElement()).getQualifiedName().toString();
+        src.append("package ").append(pkg).append(";\n\n");
+        src.append("import com.querydsl.core.Tuple;\n");
+        src.append("import com.querydsl.core.types.Expression;\n");
+        src.append("import com.querydsl.core.types.FactoryExpression;\n");
+        src.append("import com.querydsl.core.types.FactoryExpressionBase;\n");
+        src.append("import com.querydsl.core.types.Visitor;\n\n");
+        src.append("import java.util.Arrays;\n");
+        src.append("import java.util.Collections;\n");
+        src.append("import java.util.List;\n\n");
+        src.append("/**\n * ").append(dto).append(" 로 바로 매핑하는 projection (리플렉션 없이 ")
+                .append(model.strategy == MapperModel.Strategy.CONSTRUCTOR ? "생성자" : "기본 생성자 + setter")
+                .append(" 호출).\n */\n");
+        src.append("@javax.annotation.processing.Generated(\"").append(generator).append("\")\n");
+        src.append("@SuppressWarnings(\"unchecked\")\n");
+        src.append("public final class ").append(mapper).append(" {\n\n");
+        src.append("    private ").append(mapper).append("() {\n    }\n\n");
+
+        writeProjection(src);
+        src.append("    public static ").append(dto).append(" map(Tuple tuple) {\n");
+        src.append("        return map(tuple.toArray());\n");
+        src.append("    }\n\n");
+        writeMap(src);
+        writeProjectionClass(src);
+
+        src.append("}\n");
+        return src.toString();
+    }
+
+    private void writeProjection(StringBuilder src) {
+        List<MapperModel.Property> properties = model.properties;
+        src.append("    public static FactoryExpression<").append(dto).append("> projection(");
+        for (int i = 0; i < properties.size(); i++) {
+            MapperModel.Property property = properties.get(i);
+            src.append(i == 0 ? "" : ", ")
+                    .append("Expression<? extends ").append(boxed(property.type())).append("> ").append(property.name());
+        }
+        src.append(") {\n");
+        src.append("        return new Projection(Arrays.asList(");
+        for (int i = 0; i < properties.size(); i++) {
+            src.append(i == 0 ? "" : ", ").append(properties.get(i).name());
+        }
+        src.append("));\n");
+        src.append("    }\n\n");
+    }
+
+    private void writeMap(StringBuilder src) {
+        List<MapperModel.Property> properties = model.properties;
+        src.append("    public static ").append(dto).append(" map(Object... args) {\n");
+        if (model.strategy == MapperModel.Strategy.CONSTRUCTOR) {
+            src.append("        return new ").append(dto).append("(");
+            for (int i = 0; i < properties.size(); i++) {
+                src.append(i == 0 ? "\n                " : ",\n                ").append(value(properties.get(i).type(), i));
+            }
+            src.append(");\n");
+        } else {
+            src.append("        ").append(dto).append(" dto = new ").append(dto).append("();\n");
+            for (int i = 0; i < properties.size(); i++) {
+                MapperModel.Property property = properties.get(i);
+                String set = "dto." + property.setter() + "(" + value(property.type(), i) + ");\n";
+                //Projections.bean 처럼 null 이면 primitive 필드는 기본값 그대로 둔다
+                src.append(property.type().getKind().isPrimitive()
+                        ? "        if (args[" + i + "] != null) " + set
+                        : "        " + set);
+            }
+            src.append("        return dto;\n");
+        }
+        src.append("    }\n\n");
+    }
+
+    private void writeProjectionClass(StringBuilder src) {
+        src.append("    private static final class Projection extends FactoryExpressionBase<").append(dto).append("> {\n\n");
+        src.append("        private final List<Expression<?>> args;\n\n");
+        src.append("        private Projection(List<Expression<?>> args) {\n");
+        src.append("            super(").append(dto).append(".class);\n");
+        src.append("            this.args = Collections.unmodifiableList(args);\n");
+        src.append("        }\n\n");
+        src.append("        @Override\n");
+        src.append("        public List<Expression<?>> getArgs() {\n");
+        src.append("            return args;\n");
+        src.append("        }\n\n");
+        src.append("        @Override\n");
+        src.append("        public ").append(dto).append(" newInstance(Object... values) {\n");
+        src.append("            return map(values);\n");
+        src.append("        }\n\n");
+        src.append("        @Override\n");
+        src.append("        public <R, C> R accept(Visitor<R, C> v, C context) {\n");
+        src.append("            return v.visit(this, context);\n");
+        src.append("        }\n\n");
+        src.append("        @Override\n");
+        src.append("        public boolean equals(Object obj) {\n");
+        src.append("            return obj == this || (obj instanceof Projection other && args.equals(other.args));\n");
+        src.append("        }\n");
+        src.append("    }\n");
+    }
+
+    //DB 가 돌려준 숫자 타입이 필드와 달라도(count -> Long 등) Number 로 받아 변환한다
+    private static String value(TypeMirror type, int index) {
+        String arg = "args[" + index + "]";
+        return switch (type.getKind()) {
+            case BOOLEAN -> arg + " != null && (Boolean) " + arg;
+            case CHAR -> arg + " == null ? '\\0' : (Character) " + arg;
+            case BYTE, SHORT, INT, LONG, FLOAT, DOUBLE -> arg + " == null ? 0 : ((Number) " + arg + ")."
+                    + type.getKind().name().toLowerCase(Locale.ROOT) + "Value()";
+            default -> "(" + type + ") " + arg;
+        };
+    }
+
+    private static String boxed(TypeMirror type) {
+        TypeKind kind = type.getKind();
+        return switch (kind) {
+            case BOOLEAN -> "Boolean";
+            case BYTE -> "Byte";
+            case SHORT -> "Short";
+            case INT -> "Integer";
+            case LONG -> "Long";
+            case CHAR -> "Character";
+            case FLOAT -> "Float";
+            case DOUBLE -> "Double";
+            default -> type.toString();
+        };
+    }
+}
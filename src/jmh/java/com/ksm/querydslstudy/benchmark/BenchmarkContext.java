@@ -0,0 +1,66 @@
+package com.ksm.querydslstudy.benchmark;
+
+import com.ksm.querydslstudy.QueryDslStudyApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트.
+ * in-memory H2 에 member/team 을 JDBC batch 로 직접 채워두고, 캐시와 SQL 로그는 꺼서 DB 경로만 측정한다.
+ */
+public final class BenchmarkContext {
+
+    public static final int TEAM_COUNT = 100;
+    private static final int BATCH_SIZE = 10_000;
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(int memberCount, String... extraProperties) {
+        //application.yml 보다 우선하도록 커맨드라인 인자로 넘긴다 (local 프로파일의 InitMember 도 비활성화)
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.profiles.active=bench",
+                "spring.datasource.url=jdbc:h2:mem:bench" + memberCount + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto=create",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "logging.level.org.hibernate.SQL=warn",
+                "logging.level.p6spy=warn",
+                "decorator.datasource.p6spy.enable-logging=false",
+                "member.search.count-cache.max-size=0",
+                "member.search.result-cache.max-size=0"));
+        properties.addAll(List.of(extraProperties));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QueryDslStudyApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+        seed(context.getBean(JdbcTemplate.class), memberCount);
+        return context;
+    }
+
+    //member{i} 는 team{i % TEAM_COUNT} 소속, 나이는 팀 안에서 0~99 로 고르게 분포
+    private static void seed(JdbcTemplate jdbcTemplate, int memberCount) {
+        List<Object[]> teams = new ArrayList<>();
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            teams.add(new Object[]{(long) i + 1, "team" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into team (team_id, name) values (?, ?)", teams);
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < memberCount; i++) {
+            batch.add(new Object[]{(long) i + 1, "member" + i, (i / TEAM_COUNT) % 100, (long) (i % TEAM_COUNT) + 1});
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", batch);
+        }
+        jdbcTemplate.execute("analyze");
+    }
+}
@@ -0,0 +1,93 @@
+package com.ksm.querydslstudy.benchmark;
+
+import com.ksm.querydslstudy.dto.MemberDto;
+import com.ksm.querydslstudy.dto.MemberDtoMapper;
+import com.ksm.querydslstudy.dto.QMemberDto;
+import com.ksm.querydslstudy.dto.UserDto;
+import com.ksm.querydslstudy.dto.UserDtoMapper;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static com.ksm.querydslstudy.entity.QMember.member;
+
+/**
+ * DB 없이 결과 행(Object[]) -> DTO 매핑 비용만 비교.
+ * ProjectionBenchmark 는 조회까지 포함하므로 매핑 차이가 I/O 에 묻히는데, 여기서는 FactoryExpression.newInstance 만 잰다.
+ * 한 번 호출에 ROWS 행을 매핑하고 OperationsPerInvocation 으로 나누므로 thrpt 는 행/ms, gc.alloc.rate.norm 은 행당 할당 바이트다.
+ */
+@State(Scope.Thread)
+public class DtoMapperBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private final Object[][] rows = new Object[ROWS][];
+
+    private FactoryExpression<MemberDto> bean;
+    private FactoryExpression<UserDto> fields;
+    private FactoryExpression<MemberDto> constructor;
+    private FactoryExpression<MemberDto> queryProjection;
+    private FactoryExpression<MemberDto> generated;
+    private FactoryExpression<UserDto> generatedUserDto;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new Object[]{"member" + i, i % 100};
+        }
+        bean = Projections.bean(MemberDto.class, member.username.as("userName"), member.age);
+        fields = Projections.fields(UserDto.class, member.username.as("name"), member.age);
+        constructor = Projections.constructor(MemberDto.class, member.username, member.age);
+        queryProjection = new QMemberDto(member.username, member.age);
+        generated = MemberDtoMapper.projection(member.username, member.age);
+        generatedUserDto = UserDtoMapper.projection(member.username, member.age);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void bean(Blackhole bh) {
+        map(bean, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void fields(Blackhole bh) {
+        map(fields, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void constructor(Blackhole bh) {
+        map(constructor, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void queryProjection(Blackhole bh) {
+        map(queryProjection, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void generatedMapper(Blackhole bh) {
+        map(generated, bh);
+    }
+
+    //fields() 와 같은 UserDto(name 별칭) 매핑
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void generatedUserDtoMapper(Blackhole bh) {
+        map(generatedUserDto, bh);
+    }
+
+    private void map(FactoryExpression<?> projection, Blackhole bh) {
+        for (Object[] row : rows) {
+            bh.consume(projection.newInstance(row));
+        }
+    }
+}
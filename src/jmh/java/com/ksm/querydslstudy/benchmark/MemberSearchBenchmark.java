@@ -0,0 +1,99 @@
+package com.ksm.querydslstudy.benchmark;
+
+import com.ksm.querydslstudy.dto.CursorPage;
+import com.ksm.querydslstudy.dto.MemberCursor;
+import com.ksm.querydslstudy.dto.MemberSearchCondition;
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import com.ksm.querydslstudy.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+/**
+ * MemberRepositoryImpl 검색/페이징 경로 비교.
+ * depthPercent 파라미터로 얕은 페이지와 깊은 페이지에서 offset 페이징(simple/complex)과 keyset 페이징(cursor)을 비교한다.
+ * 깊은 페이지는 검색 결과 건수(team7, 20~80세: 10k 행이면 61건, 1M 행이면 6,100건)의 해당 비율 위치로 잡아 항상 결과 안쪽을 잰다.
+ */
+@State(Scope.Benchmark)
+public class MemberSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    //결과 중 몇 % 지점의 페이지를 읽을지 (0 이면 첫 페이지)
+    @Param({"0", "90"})
+    public int depthPercent;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberSearchCondition condition;
+    private PageRequest pageRequest;
+    private String cursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        memberRepository = context.getBean(MemberRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team7");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(80);
+
+        int total = memberRepository.search(condition).size();
+        int page = (int) ((long) total * depthPercent / 100 / PAGE_SIZE);
+        if (page > 0 && (page + 1) * PAGE_SIZE > total) {
+            page--;
+        }
+        pageRequest = PageRequest.of(page, PAGE_SIZE);
+        cursor = cursorFor(page * PAGE_SIZE);
+    }
+
+    //offset 만큼 건너뛴 위치의 커서를 미리 구해둔다 (측정 대상 아님)
+    private String cursorFor(int offset) {
+        if (offset == 0) {
+            return null;
+        }
+        CursorPage<MemberTeamDto> skipped = memberRepository.searchByCursor(condition, null, offset);
+        if (skipped.getNextCursor() == null) {
+            //커서가 없으면 첫 페이지를 재게 되므로 설정 오류로 본다
+            throw new IllegalStateException("no cursor after " + offset + " rows, result is smaller than the requested page");
+        }
+        return skipped.getNextCursor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> search() {
+        return memberRepository.search(condition);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return memberRepository.searchPageSimple(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return memberRepository.searchPageComplex(condition, pageRequest);
+    }
+
+    @Benchmark
+    public CursorPage<MemberTeamDto> searchByCursor() {
+        return memberRepository.searchByCursor(condition, MemberCursor.SortKey.ID, cursor, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ksm.querydslstudy.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ksm.querydslstudy.dto.MemberPageResponse;
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 검색 응답 한 페이지의 JSON 직렬화 비용 (DB 없이 응답 쪽 CPU/할당만).
+ * pageImpl 은 v2/v3 처럼 PageImpl 을 BeanSerializer 로, slimPage 는 v5 의 MemberPageResponse 를 전용 serializer 로 쓴다.
+ * 출력 버퍼는 재사용하므로 gc.alloc.rate.norm 은 직렬화 과정에서 생기는 할당만 잡힌다.
+ */
+@State(Scope.Thread)
+public class PageSerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+    private ObjectWriter pageWriter;
+    private ObjectWriter slimWriter;
+    private Page<MemberTeamDto> page;
+    private MemberPageResponse slimPage;
+
+    @Setup
+    public void setUp() {
+        List<MemberTeamDto> content = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            content.add(new MemberTeamDto((long) i, "member" + i, i % 100, (long) (i % 10), "team" + (i % 10)));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+        slimPage = MemberPageResponse.of(page);
+        pageWriter = objectMapper.writerFor(Page.class);
+        slimWriter = objectMapper.writerFor(MemberPageResponse.class);
+    }
+
+    @Benchmark
+    public int pageImpl() throws IOException {
+        out.reset();
+        pageWriter.writeValue(out, page);
+        return out.size();
+    }
+
+    //응답 객체 생성까지 포함 (컨트롤러에서 매 요청 감싸는 비용)
+    @Benchmark
+    public int slimPage() throws IOException {
+        out.reset();
+        slimWriter.writeValue(out, MemberPageResponse.of(page));
+        return out.size();
+    }
+
+    @Benchmark
+    public int slimPagePrebuilt() throws IOException {
+        out.reset();
+        slimWriter.writeValue(out, slimPage);
+        return out.size();
+    }
+}
@@ -0,0 +1,137 @@
+package com.ksm.querydslstudy.benchmark;
+
+import com.ksm.querydslstudy.dto.MemberDto;
+import com.ksm.querydslstudy.dto.MemberDtoMapper;
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import com.ksm.querydslstudy.dto.QMemberDto;
+import com.ksm.querydslstudy.dto.QMemberTeamDto;
+import com.ksm.querydslstudy.dto.UserDto;
+import com.ksm.querydslstudy.dto.UserDtoMapper;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+import static com.ksm.querydslstudy.entity.QMember.member;
+import static com.ksm.querydslstudy.entity.QTeam.team;
+
+/**
+ * QueryDslMiddleTest 에서 다룬 DTO 조회 방식별 비용 비교.
+ * 같은 행 수를 조회하므로 차이는 대부분 결과 매핑(리플렉션 vs 생성자 호출)에서 나온다.
+ * generated* 는 mapper-processor 가 생성한 매퍼, 매핑 비용만 따로 보려면 DtoMapperBenchmark 참고.
+ */
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    private static final int FETCH_ROWS = 1000;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private JPAQueryFactory queryFactory;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        emf = context.getBean(EntityManagerFactory.class);
+    }
+
+    //반복마다 영속성 컨텍스트를 새로 만들어 이전 측정의 상태가 섞이지 않게 한다
+    @Setup(Level.Iteration)
+    public void openEntityManager() {
+        em = emf.createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeEntityManager() {
+        em.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberDto> bean() {
+        return queryFactory
+                .select(Projections.bean(MemberDto.class, member.username.as("userName"), member.age))
+                .from(member)
+                .limit(FETCH_ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<UserDto> fields() {
+        return queryFactory
+                .select(Projections.fields(UserDto.class, member.username.as("name"), member.age))
+                .from(member)
+                .limit(FETCH_ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> constructor() {
+        return queryFactory
+                .select(Projections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(FETCH_ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> queryProjection() {
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .limit(FETCH_ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> generatedMapper() {
+        return queryFactory
+                .select(MemberDtoMapper.projection(member.username, member.age))
+                .from(member)
+                .limit(FETCH_ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<UserDto> generatedUserDtoMapper() {
+        return queryFactory
+                .select(UserDtoMapper.projection(member.username, member.age))
+                .from(member)
+                .limit(FETCH_ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> memberTeamDto() {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .limit(FETCH_ROWS)
+                .fetch();
+    }
+}
@@ -0,0 +1,70 @@
+package com.ksm.querydslstudy.benchmark;
+
+import com.ksm.querydslstudy.dto.QMemberTeamDto;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import static com.ksm.querydslstudy.entity.QMember.member;
+import static com.ksm.querydslstudy.entity.QTeam.team;
+
+/**
+ * DB 없이 MemberRepositoryImpl.search 와 같은 모양의 querydsl 표현식 트리를 만들고 JPQL 로 직렬화하는 비용.
+ * 요청마다 반복되는 순수 CPU 비용이다.
+ */
+@State(Scope.Thread)
+public class QueryConstructionBenchmark {
+
+    public String username = null;
+    public String teamName = "teamA";
+    public Integer ageGoe = 20;
+    public Integer ageLoe = 30;
+
+    @Benchmark
+    public JPAQuery<?> buildQuery() {
+        return newSearchQuery();
+    }
+
+    @Benchmark
+    public String buildAndSerialize() {
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(newSearchQuery().getMetadata(), false, null);
+        return serializer.toString();
+    }
+
+    private JPAQuery<?> newSearchQuery() {
+        return new JPAQuery<Void>()
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(username),
+                        teamNameEq(teamName),
+                        ageGoe(ageGoe),
+                        ageLoe(ageLoe));
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return username == null || username.isEmpty() ? null : member.username.eq(username);
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return teamName == null || teamName.isEmpty() ? null : team.name.eq(teamName);
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe == null ? null : member.age.goe(ageGoe);
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe == null ? null : member.age.loe(ageLoe);
+    }
+}
@@ -0,0 +1,87 @@
+package com.ksm.querydslstudy.benchmark;
+
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.repository.MemberSearchKey;
+import com.ksm.querydslstudy.repository.MemberSearchTemplates;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 같은 작업을 읽기/쓰기 트랜잭션과 읽기 전용 트랜잭션에서 실행한 비용 비교.
+ * 회원 엔티티 loadedEntities 건을 영속성 컨텍스트에 올린 뒤 검색을 searches 번 실행한다.
+ * 읽기/쓰기 트랜잭션은 엔티티마다 스냅샷을 만들고 검색마다 자동 flush 로 더티체킹을 하지만,
+ * 읽기 전용 트랜잭션은 HibernateJpaDialect 가 세션을 기본 읽기 전용 + FlushMode.MANUAL 로 두므로 스냅샷도 flush 도 없다.
+ * 검색 결과는 DTO 라서 차이는 미리 올린 엔티티에서만 난다 (loadedEntities=0 이면 거의 같아야 한다).
+ * gc 프로파일러의 alloc.rate.norm 으로 할당량 차이를 본다.
+ */
+@State(Scope.Benchmark)
+public class ReadOnlySearchBenchmark {
+
+    private static final int SEARCHES = 5;
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"0", "1000"})
+    public int loadedEntities;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private MemberSearchTemplates templates;
+    private TransactionTemplate readWriteTx;
+    private TransactionTemplate readOnlyTx;
+    private MemberSearchKey key;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        em = context.getBean(EntityManager.class);
+        templates = context.getBean(MemberSearchTemplates.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWriteTx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        key = new MemberSearchKey(null, null, null, "team7", 20, 30);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int readWrite() {
+        return readWriteTx.execute(status -> loadAndSearch());
+    }
+
+    @Benchmark
+    public int readOnly() {
+        return readOnlyTx.execute(status -> loadAndSearch());
+    }
+
+    private int loadAndSearch() {
+        int rows = 0;
+        if (loadedEntities > 0) {
+            List<Member> members = em.createQuery("select m from Member m", Member.class)
+                    .setMaxResults(loadedEntities)
+                    .getResultList();
+            rows += members.size();
+        }
+        for (int i = 0; i < SEARCHES; i++) {
+            List<MemberTeamDto> result = templates.content(em, key).getResultList();
+            rows += result.size();
+        }
+        return rows;
+    }
+}
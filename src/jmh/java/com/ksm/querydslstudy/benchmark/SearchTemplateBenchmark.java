@@ -0,0 +1,135 @@
+package com.ksm.querydslstudy.benchmark;
+
+import com.ksm.querydslstudy.dto.MemberSearchCondition;
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import com.ksm.querydslstudy.dto.QMemberTeamDto;
+import com.ksm.querydslstudy.repository.MemberSearchKey;
+import com.ksm.querydslstudy.repository.MemberSearchTemplates;
+import com.ksm.querydslstudy.repository.TeamIdResolver;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+import static com.ksm.querydslstudy.entity.QMember.member;
+import static com.ksm.querydslstudy.entity.QTeam.team;
+
+/**
+ * 요청마다 querydsl 로 쿼리를 조립하는 방식과 미리 만들어둔 JPQL 템플릿에 바인딩만 하는 방식 비교.
+ * create* 는 실행 직전까지(표현식 트리 생성, 직렬화, 플랜 캐시 조회, 바인딩)의 CPU 비용만,
+ * execute* 는 실제 조회까지 포함한 비용이다.
+ * executeTemplateByTeamId 는 팀명을 TeamIdResolver 로 팀 id 로 바꿔 team 조인 없이 member.team_id 로 거르는 경우다.
+ */
+@State(Scope.Benchmark)
+public class SearchTemplateBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory emf;
+    private MemberSearchTemplates templates;
+    private TeamIdResolver teamIdResolver;
+    private EntityManager em;
+    private JPAQueryFactory queryFactory;
+    private MemberSearchCondition condition;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        emf = context.getBean(EntityManagerFactory.class);
+        templates = context.getBean(MemberSearchTemplates.class);
+        teamIdResolver = context.getBean(TeamIdResolver.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team7");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(30);
+    }
+
+    @Setup(Level.Iteration)
+    public void openEntityManager() {
+        em = emf.createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeEntityManager() {
+        em.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Query createQuerydsl() {
+        return querydslSearch().createQuery();
+    }
+
+    @Benchmark
+    public Query createTemplate() {
+        return templates.content(em, MemberSearchKey.of(condition));
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> executeQuerydsl() {
+        return querydslSearch().fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> executeTemplate() {
+        return templates.content(em, MemberSearchKey.of(condition)).getResultList();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> executeTemplateByTeamId() {
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        return templates.content(em, key, teamIdResolver.resolve(key.teamName())).getResultList();
+    }
+
+    private JPAQuery<MemberTeamDto> querydslSearch() {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()));
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return username == null || username.isEmpty() ? null : member.username.eq(username);
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return teamName == null || teamName.isEmpty() ? null : team.name.eq(teamName);
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe == null ? null : member.age.goe(ageGoe);
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe == null ? null : member.age.loe(ageLoe);
+    }
+}
@@ -0,0 +1,72 @@
+package com.ksm.querydslstudy.benchmark;
+
+import com.ksm.querydslstudy.dto.TeamRosterDto;
+import com.ksm.querydslstudy.entity.Team;
+import com.ksm.querydslstudy.jpaRepository.TeamJpaRepository;
+import com.ksm.querydslstudy.service.TeamRosterService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 팀 20개 + 소속 회원 조회.
+ * fetchJoin 은 기존 findAllByKsm (전체 팀/회원을 읽고 메모리에서 20개 팀만 사용),
+ * roster 는 팀을 SQL 로 페이징하고 회원은 IN 쿼리로 가져오는 방식이다.
+ */
+@State(Scope.Benchmark)
+public class TeamRosterBenchmark {
+
+    private static final int TEAMS_PER_PAGE = 20;
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"0", "50"})
+    public int maxMembers;
+
+    private ConfigurableApplicationContext context;
+    private TeamJpaRepository teamJpaRepository;
+    private TeamRosterService teamRosterService;
+    private TransactionTemplate readOnlyTx;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        teamJpaRepository = context.getBean(TeamJpaRepository.class);
+        teamRosterService = context.getBean(TeamRosterService.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int fetchJoin() {
+        return readOnlyTx.execute(status -> {
+            List<Team> teams = teamJpaRepository.findAllByKsm();
+            int members = 0;
+            for (Team team : teams.stream().distinct().limit(TEAMS_PER_PAGE).toList()) {
+                members += team.getMembers().size();
+            }
+            return members;
+        });
+    }
+
+    @Benchmark
+    public Page<TeamRosterDto> roster() {
+        return teamRosterService.findRosters(PageRequest.of(0, TEAMS_PER_PAGE), maxMembers == 0 ? null : maxMembers);
+    }
+}
@@ -0,0 +1,96 @@
+package com.ksm.querydslstudy.benchmark;
+
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import com.ksm.querydslstudy.repository.MemberSearchKey;
+import com.ksm.querydslstudy.repository.MemberSearchTemplates;
+import com.ksm.querydslstudy.search.UsernameTrigramIndex;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 자동완성 형태의 회원명 검색 비교 (상위 LIMIT 건).
+ * 접두: 범위 조건(usernamePrefix) vs like 'x%', 부분: trigram 색인(usernameContains) vs like '%x%'.
+ * 시드 회원명은 member{i} 이므로 숫자 부분으로 검색하고, 모든 회원이 가진 조각("ber")이 섞인 검색어도 같이 잰다.
+ * 흔한 조각은 UsernameGramFrequencies 가 빼므로 trigram 색인은 드문 조각의 색인만 읽어야 한다.
+ */
+@State(Scope.Benchmark)
+public class UsernameSearchBenchmark {
+
+    private static final int LIMIT = 20;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"member1234"})
+    public String prefix;
+
+    @Param({"23456", "ber12"})
+    public String term;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private MemberSearchTemplates templates;
+    private TransactionTemplate readOnlyTx;
+    private MemberSearchKey prefixKey;
+    private MemberSearchKey containsKey;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        //BenchmarkContext 는 JDBC 로 시드하므로 trigram 색인은 따로 만든다
+        context.getBean(UsernameTrigramIndex.class).rebuild();
+        em = context.getBean(EntityManager.class);
+        templates = context.getBean(MemberSearchTemplates.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        prefixKey = new MemberSearchKey(null, prefix, null, null, null, null);
+        containsKey = new MemberSearchKey(null, null, term, null, null, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> prefixRange() {
+        return readOnlyTx.execute(status -> templates.content(em, prefixKey)
+                .setMaxResults(LIMIT)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> prefixLike() {
+        return readOnlyTx.execute(status -> like(prefix + "%"));
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> containsTrigram() {
+        return readOnlyTx.execute(status -> templates.content(em, containsKey)
+                .setMaxResults(LIMIT)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> containsLike() {
+        return readOnlyTx.execute(status -> like("%" + term + "%"));
+    }
+
+    private List<MemberTeamDto> like(String pattern) {
+        return em.createQuery("select new com.ksm.querydslstudy.dto.MemberTeamDto(m.id, m.username, m.age, t.id, t.name) " +
+                        "from Member m left join m.team t where m.username like :pattern", MemberTeamDto.class)
+                .setParameter("pattern", pattern)
+                .setMaxResults(LIMIT)
+                .getResultList();
+    }
+}
@@ -0,0 +1,37 @@
+package com.ksm.querydslstudy;
+
+import com.ksm.querydslstudy.service.MemberSeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * seed 프로파일로 기동하면 대량 데이터를 적재한다.
+ * ex) --spring.profiles.active=seed --seed.members=5000000 --seed.teams=2000 --seed.partitions=4
+ */
+@Profile("seed")
+@Component
+@RequiredArgsConstructor
+public class DataSeeder implements ApplicationRunner {
+
+    private final MemberSeedService memberSeedService;
+
+    @Value("${seed.teams:1000}")
+    private int teams;
+    @Value("${seed.members:1000000}")
+    private long members;
+    @Value("${seed.chunk-size:10000}")
+    private int chunkSize;
+    @Value("${seed.flush-size:1000}")
+    private int flushSize;
+    @Value("${seed.partitions:1}")
+    private int partitions;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        memberSeedService.seed(teams, members, chunkSize, flushSize, partitions);
+    }
+}
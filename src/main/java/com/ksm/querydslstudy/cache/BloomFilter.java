@@ -0,0 +1,99 @@
+package com.ksm.querydslstudy.cache;
+
+/**
+ * 문자열 Bloom filter. 만든 뒤에는 읽기만 하므로 여러 스레드에서 동시에 조회해도 된다.
+ * mightContain 이 false 면 확실히 없는 값이고, true 면 fpp 확률로 잘못된 양성일 수 있다.
+ */
+public final class BloomFilter {
+
+    private final long[] words;
+    private final int bits;
+    private final int hashFunctions;
+    private final int entries;
+    private final int bitsSet;
+
+    private BloomFilter(long[] words, int bits, int hashFunctions, int entries) {
+        this.words = words;
+        this.bits = bits;
+        this.hashFunctions = hashFunctions;
+        this.entries = entries;
+        int set = 0;
+        for (long word : words) {
+            set += Long.bitCount(word);
+        }
+        this.bitsSet = set;
+    }
+
+    //n 개를 넣었을 때 잘못된 양성 비율이 fpp 가 되도록 비트 수와 해시 함수 수를 정한다
+    public static BloomFilter of(Iterable<String> values, int expectedEntries, double fpp) {
+        int n = Math.max(1, expectedEntries);
+        int bits = (int) Math.max(64, Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+        int hashFunctions = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        long[] words = new long[(bits + 63) >>> 6];
+        int entries = 0;
+        for (String value : values) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashFunctions; i++) {
+                int bit = index(h1 + i * h2, bits);
+                words[bit >>> 6] |= 1L << bit;
+            }
+            entries++;
+        }
+        return new BloomFilter(words, bits, hashFunctions, entries);
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            int bit = index(h1 + i * h2, bits);
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //현재 채워진 비트 비율로 계산한, 없는 값을 있다고 할 확률
+    public double falsePositiveRate() {
+        return Math.pow((double) bitsSet / bits, hashFunctions);
+    }
+
+    public int entries() {
+        return entries;
+    }
+
+    public int bits() {
+        return bits;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    public long memoryBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    private static int index(int combined, int bits) {
+        return (combined & Integer.MAX_VALUE) % bits;
+    }
+
+    //char 단위 64비트 FNV-1a 후 splitmix64 로 섞는다, 앞뒤 32비트를 두 해시로 쓴다 (조회마다 할당 없음)
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 30;
+        hash *= 0xbf58476d1ce4e5b9L;
+        hash ^= hash >>> 27;
+        hash *= 0x94d049bb133111ebL;
+        hash ^= hash >>> 31;
+        return hash;
+    }
+}
@@ -0,0 +1,9 @@
+package com.ksm.querydslstudy.cache;
+
+public record CacheStats(int size, long hits, long misses, long evictions) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ksm.querydslstudy.cache;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+
+/**
+ * JdbcTemplate 처럼 Hibernate 를 거치지 않는 쓰기도 p6spy 이벤트로 잡아서 테이블 버전을 올린다.
+ * Hibernate 문장은 {@link TableWriteInspector} 와 여기서 두 번 올라가지만 버전은 바뀌었는지만 보므로 상관없다.
+ */
+@Component
+@RequiredArgsConstructor
+public class JdbcWriteListener extends SimpleJdbcEventListener {
+
+    private final TableWriteInspector tableWriteInspector;
+
+    @Override
+    public void onBeforeAnyExecute(StatementInformation statementInformation) {
+        String sql = statementInformation.getSql();
+        if (sql != null) {
+            tableWriteInspector.inspect(sql);
+        }
+    }
+
+    //트랜잭션 밖(autocommit)의 쓰기는 커밋 후 한번 더 올려줄 동기화가 없으므로 실행이 끝난 뒤 직접 올린다
+    //실행 전 버전으로 그 사이 옛 데이터를 읽어 적재한 캐시/필터를 버리게 한다
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        if (sql != null && !TransactionSynchronizationManager.isSynchronizationActive()) {
+            tableWriteInspector.inspect(sql);
+        }
+    }
+}
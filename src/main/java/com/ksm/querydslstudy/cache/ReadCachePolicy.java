@@ -0,0 +1,15 @@
+package com.ksm.querydslstudy.cache;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class ReadCachePolicy {
+
+    private ReadCachePolicy() {
+    }
+
+    //쓰기 트랜잭션 안에서는 아직 flush 안 된 변경이 있을 수 있으므로 캐시를 읽지도 채우지도 않는다
+    public static boolean isCacheable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,49 @@
+package com.ksm.querydslstudy.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 테이블별 쓰기 버전 카운터.
+ * 캐시는 적재 시점의 버전을 같이 저장해두고, 버전이 달라지면 무효화된 것으로 본다.
+ */
+@Component
+public class TableVersions {
+
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    //엔티티 단건 쓰기가 아닌 벌크 쓰기 버전, 엔티티 이벤트로 따라갈 수 없는 변경이 있었는지 판단할 때 쓴다
+    private final ConcurrentHashMap<String, AtomicLong> bulkVersions = new ConcurrentHashMap<>();
+
+    public void bump(String table) {
+        counter(table).incrementAndGet();
+    }
+
+    public void bumpBulk(String table) {
+        bulkVersions.computeIfAbsent(table.toLowerCase(Locale.ROOT), t -> new AtomicLong()).incrementAndGet();
+    }
+
+    //버전은 증가만 하므로 합이 같으면 어느 테이블도 변경되지 않은 것
+    public long stamp(String... tables) {
+        long stamp = 0;
+        for (String table : tables) {
+            stamp += counter(table).get();
+        }
+        return stamp;
+    }
+
+    public long bulkStamp(String... tables) {
+        long stamp = 0;
+        for (String table : tables) {
+            AtomicLong counter = bulkVersions.get(table.toLowerCase(Locale.ROOT));
+            stamp += counter == null ? 0 : counter.get();
+        }
+        return stamp;
+    }
+
+    private AtomicLong counter(String table) {
+        return versions.computeIfAbsent(table.toLowerCase(Locale.ROOT), t -> new AtomicLong());
+    }
+}
@@ -0,0 +1,100 @@
+package com.ksm.querydslstudy.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate 가 실행하는 모든 insert/update/delete 를 보고 해당 테이블 버전을 올린다.
+ * em.persist 뿐 아니라 querydsl update(member)/delete(member) 같은 벌크 연산도 여기서 잡힌다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TableWriteInspector implements StatementInspector {
+
+    private static final Pattern WRITE_STATEMENT = Pattern.compile(
+            "^\\s*(?:insert\\s+into|update|delete\\s+from|merge\\s+into)\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    //Hibernate 가 엔티티 한 건을 쓸 때의 모양: insert ... values (...), update/delete ... where <pk>=?
+    //그 외(HQL/querydsl 벌크 연산, insert ... select 등)는 벌크 쓰기로 본다
+    //단일 테이블 벌크 연산도 별칭 없이 where <컬럼>=? 으로 나올 수 있으므로 조건 컬럼(group 1)이 기본키인지 따로 본다
+    private static final Pattern ENTITY_ROW_WRITE = Pattern.compile(
+            "^\\s*(?:insert\\s+into\\s+\\w+\\s*\\([^)]*\\)\\s*values\\s*\\(.*"
+                    + "|(?:update\\s+\\w+\\s+set\\s+.+?|delete\\s+from\\s+\\w+)\\s+where\\s+(\\w+)\\s*=\\s*\\?\\s*)$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final TableVersions tableVersions;
+
+    @Override
+    public String inspect(String sql) {
+        Matcher matcher = WRITE_STATEMENT.matcher(sql);
+        if (matcher.find()) {
+            String table = matcher.group(1).toLowerCase(Locale.ROOT);
+            boolean bulk = !isEntityRowWrite(sql, table);
+            tableVersions.bump(table);
+            if (bulk) {
+                tableVersions.bumpBulk(table);
+            }
+            bumpAfterCompletion(table, bulk);
+        }
+        return sql;
+    }
+
+    //이 저장소의 기본키 컬럼은 <테이블>_id 다 (member_id, team_id)
+    private static boolean isEntityRowWrite(String sql, String table) {
+        Matcher matcher = ENTITY_ROW_WRITE.matcher(sql);
+        if (!matcher.matches()) {
+            return false;
+        }
+        String column = matcher.group(1);
+        return column == null || column.equalsIgnoreCase(table + "_id");
+    }
+
+    //커밋 전에 다른 트랜잭션이 옛 데이터를 다시 캐시에 올릴 수 있으므로 트랜잭션 종료 후 한번 더 올린다 (롤백 포함)
+    //벌크 버전도 마찬가지다: 그 사이 다시 적재한 스냅샷은 올라간 벌크 버전을 기록했지만 커밋 전 데이터를 읽었다
+    private void bumpAfterCompletion(String table, boolean bulk) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingBump pending && pending.owner() == this) {
+                pending.add(table, bulk);
+                return;
+            }
+        }
+        PendingBump pending = new PendingBump();
+        pending.add(table, bulk);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    private class PendingBump implements TransactionSynchronization {
+
+        private final Set<String> tables = new HashSet<>();
+        private final Set<String> bulkTables = new HashSet<>();
+
+        private TableWriteInspector owner() {
+            return TableWriteInspector.this;
+        }
+
+        private void add(String table, boolean bulk) {
+            tables.add(table);
+            if (bulk) {
+                bulkTables.add(table);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            tables.forEach(tableVersions::bump);
+            bulkTables.forEach(tableVersions::bumpBulk);
+        }
+    }
+}
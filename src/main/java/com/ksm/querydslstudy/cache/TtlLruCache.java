@@ -0,0 +1,89 @@
+package com.ksm.querydslstudy.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 크기 제한(LRU) + TTL 캐시.
+ * 엔트리마다 적재 시점의 {@link TableVersions} stamp 를 저장하고, 조회 시 stamp 가 다르면 miss 로 처리한다.
+ */
+public class TtlLruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TtlLruCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlLruCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key, long stamp) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.stamp == stamp && System.nanoTime() < entry.expiresAt) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value, long stamp) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, stamp, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    //stamp 는 반드시 loader 실행 전에 읽은 값이어야 로딩 중 발생한 쓰기를 놓치지 않는다
+    public V getOrLoad(K key, long stamp, Supplier<V> loader) {
+        V cached = get(key, stamp);
+        if (cached != null) {
+            return cached;
+        }
+        V loaded = loader.get();
+        put(key, loaded, stamp);
+        return loaded;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(size, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private record Entry<V>(V value, long stamp, long expiresAt) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.ksm.querydslstudy.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * member.datasource.routing.enabled=true 이면 읽기 전용 트랜잭션을 replica 로 보낸다.
+ * primary 는 기존 spring.datasource 설정을 그대로 쓰고, replica 는 member.datasource.replicas 에 나열한다.
+ * primary/replica 커넥션 풀은 빈으로 등록하지 않아 p6spy 등 DataSource 데코레이터가 한번만 적용된다.
+ * 시작할 때 replica 마다 member 테이블이 있는지 확인해서 스키마 없는 replica 면 기동을 멈춘다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "member.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingConfig.ReplicaProperties.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties primaryProperties, ReplicaProperties replicaProperties) {
+        DataSource primary = primaryProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        List<DataSource> replicas = replicaProperties.replicas().stream()
+                .map(replica -> (DataSource) DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .driverClassName(primaryProperties.determineDriverClassName())
+                        .url(replica.url())
+                        .username(replica.username())
+                        .password(replica.password())
+                        .build())
+                .toList();
+        return new RoutingDataSource(new ReplicaRoutingDataSource(primary, replicas));
+    }
+
+    //ddl-auto 로 primary 스키마가 만들어진 뒤에 실행되도록 ApplicationRunner 로 확인한다
+    //(dataSource 는 p6spy 데코레이터로 감싸져 있어서 unwrap 으로 꺼낸다)
+    @Bean
+    public ApplicationRunner replicaSchemaCheck(DataSource dataSource) {
+        return args -> dataSource.unwrap(ReplicaRoutingDataSource.class).verifyReplicas("member");
+    }
+
+    //트랜잭션 시작 시점이 아니라 첫 SQL 실행 시점에 커넥션을 얻어서 readOnly 여부로 라우팅할 수 있게 한다
+    static class RoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+        RoutingDataSource(ReplicaRoutingDataSource target) {
+            super(target);
+        }
+
+        @Override
+        public void close() {
+            ((ReplicaRoutingDataSource) obtainTargetDataSource()).close();
+        }
+    }
+
+    @ConfigurationProperties(prefix = "member.datasource")
+    public record ReplicaProperties(List<Replica> replicas) {
+
+        public ReplicaProperties {
+            replicas = replicas == null ? List.of() : replicas;
+        }
+
+        public record Replica(String url, String username, String password) {
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ksm.querydslstudy.config;
+
+import com.ksm.querydslstudy.cache.TableWriteInspector;
+import com.ksm.querydslstudy.search.UsernameTrigramIntegrator;
+import com.ksm.querydslstudy.snapshot.MemberSnapshot;
+import com.ksm.querydslstudy.snapshot.MemberSnapshotIntegrator;
+import com.ksm.querydslstudy.stats.TeamStatsIntegrator;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class HibernateConfig {
+
+    //쓰기 SQL 을 감지해서 검색 캐시를 무효화
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(TableWriteInspector tableWriteInspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, tableWriteInspector);
+    }
+
+    //회원 변경을 team_stats, member_username_trigram, (켜져 있으면) 회원 스냅샷에 반영하는 이벤트 리스너 등록
+    @Bean
+    public HibernatePropertiesCustomizer eventListenerIntegratorCustomizer(MemberSnapshot memberSnapshot) {
+        List<Integrator> integrators = new ArrayList<>(List.of(new TeamStatsIntegrator(), new UsernameTrigramIntegrator()));
+        if (memberSnapshot.isEnabled()) {
+            integrators.add(new MemberSnapshotIntegrator(memberSnapshot));
+        }
+        return properties -> properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> integrators);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ksm.querydslstudy.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션은 replica 로, 그 외는 primary 로 보내는 DataSource.
+ * replica 는 round-robin 으로 고르고, 커넥션을 못 얻으면 다음 replica, 모두 실패하면 primary 로 넘어간다.
+ * 트랜잭션의 readOnly 여부가 정해진 뒤에 커넥션을 얻어야 하므로 LazyConnectionDataSourceProxy 로 감싸서 사용한다.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                DataSource replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+                try {
+                    return replica.getConnection();
+                } catch (SQLException e) {
+                    log.warn("replica connection failed, trying next: {}", e.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * 모든 replica 에 table 이 있는지 확인한다.
+     * 스키마가 없는 replica 로 읽기를 보내면 요청마다 실패하므로 시작할 때 막고, 커넥션을 못 얻는 replica 는 getConnection 처럼 건너뛴다.
+     *
+     * @throws IllegalStateException table 이 없는 replica 가 있을 때
+     */
+    public void verifyReplicas(String table) {
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection()) {
+                if (!hasTable(connection.getMetaData(), table)) {
+                    throw new IllegalStateException("replica " + i + " (" + connection.getMetaData().getURL()
+                            + ") has no table " + table + ", check member.datasource.replicas");
+                }
+            } catch (SQLException e) {
+                log.warn("replica {} unavailable, skipped schema check: {}", i, e.getMessage());
+            }
+        }
+    }
+
+    //DB 마다 식별자 대소문자 저장 방식이 달라서 그대로, 대문자, 소문자로 찾아본다
+    private static boolean hasTable(DatabaseMetaData metaData, String table) throws SQLException {
+        for (String name : List.of(table, table.toUpperCase(Locale.ROOT), table.toLowerCase(Locale.ROOT))) {
+            try (ResultSet tables = metaData.getTables(null, null, name, null)) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(primary);
+        replicas.forEach(ReplicaRoutingDataSource::closeQuietly);
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("failed to close data source", e);
+            }
+        }
+    }
+}
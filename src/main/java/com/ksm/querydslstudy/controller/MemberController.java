@@ -1,19 +1,43 @@
 package com.ksm.querydslstudy.controller;
 
+import com.ksm.querydslstudy.dto.AgeStatsDto;
+import com.ksm.querydslstudy.dto.BulkImportResult;
+import com.ksm.querydslstudy.dto.CursorPage;
+import com.ksm.querydslstudy.dto.MemberCursor;
+import com.ksm.querydslstudy.dto.MemberPageResponse;
 import com.ksm.querydslstudy.dto.MemberSearchCondition;
 import com.ksm.querydslstudy.dto.MemberTeamDto;
 import com.ksm.querydslstudy.repository.MemberRepository;
+import com.ksm.querydslstudy.service.ExportFormat;
+import com.ksm.querydslstudy.service.MemberExportService;
+import com.ksm.querydslstudy.service.MemberImportService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberImportService memberImportService;
 
     @GetMapping(value = "/v2/members")
     public Page<MemberTeamDto> searchMembersV2(MemberSearchCondition condition, Pageable pageable) {
@@ -25,6 +49,65 @@ public class MemberController {
         return memberRepository.searchPageComplex(condition, pageable);
     }
 
+    //무한스크롤용 keyset 페이징, 응답의 nextCursor 를 다음 요청의 cursor 로 넘긴다
+    @GetMapping(value = "/v4/members")
+    public CursorPage<MemberTeamDto> searchMembersV4(MemberSearchCondition condition,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "ID") MemberCursor.SortKey sort,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        return memberRepository.searchByCursor(condition, sort, cursor, cursorPageSize(size));
+    }
+
+    //v3/v4 와 같은 검색, 응답은 Pageable/Sort 메타데이터 없이 MemberPageResponse 로
+    //total 은 withTotal=true 일 때만 구하고, 아니면 count 쿼리 없이 한 건 더 읽어서 다음 페이지 여부만 판단한다
+    @GetMapping(value = "/v5/members")
+    public MemberPageResponse searchMembersV5(MemberSearchCondition condition, Pageable pageable,
+                                              @RequestParam(defaultValue = "false") boolean withTotal) {
+        return withTotal
+                ? MemberPageResponse.of(memberRepository.searchPageComplex(condition, pageable))
+                : MemberPageResponse.of(memberRepository.searchSlice(condition, pageable));
+    }
+
+    @GetMapping(value = "/v5/members/cursor")
+    public MemberPageResponse searchMembersV5Cursor(MemberSearchCondition condition,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "ID") MemberCursor.SortKey sort,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        return MemberPageResponse.of(memberRepository.searchByCursor(condition, sort, cursor, cursorPageSize(size)));
+    }
+
+    //검색조건에 맞는 회원의 수/나이 합계/평균/최소/최대
+    @GetMapping(value = "/v2/members/age-stats")
+    public AgeStatsDto memberAgeStats(MemberSearchCondition condition) {
+        return memberRepository.ageStats(condition);
+    }
+
+    //검색 결과 전체를 NDJSON/CSV 로 내려준다, 조회되는 대로 응답에 바로 쓴다
+    @GetMapping(value = "/v2/members/export")
+    public void exportMembers(MemberSearchCondition condition,
+                              @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                              HttpServletResponse response) throws IOException {
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(format.getContentType());
+        memberExportService.export(condition, format, response.getWriter());
+    }
 
+    //대량 등록, JSON 배열 또는 CSV 본문을 한 행씩 읽으면서 chunk 단위로 커밋한다
+    @PostMapping(value = "/members/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public BulkImportResult importMembers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                          InputStream body) throws IOException {
+        if (MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return memberImportService.importJson(body);
+        }
+        return memberImportService.importCsv(body);
+    }
+
+    //0 이하는 요청 오류(400), repository 의 IllegalArgumentException 까지 가면 500 이 된다
+    private static int cursorPageSize(int size) {
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be positive: " + size);
+        }
+        return Math.min(size, MAX_CURSOR_PAGE_SIZE);
+    }
 
 }
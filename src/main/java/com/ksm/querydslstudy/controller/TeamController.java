@@ -0,0 +1,41 @@
+package com.ksm.querydslstudy.controller;
+
+import com.ksm.querydslstudy.dto.TeamRosterDto;
+import com.ksm.querydslstudy.dto.TeamStatsDto;
+import com.ksm.querydslstudy.service.TeamRosterService;
+import com.ksm.querydslstudy.service.TeamStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRosterService teamRosterService;
+    private final TeamStatsService teamStatsService;
+
+    @GetMapping(value = "/teams/roster")
+    public Page<TeamRosterDto> teamRosters(Pageable pageable,
+                                           @RequestParam(required = false) Integer maxMembers) {
+        return teamRosterService.findRosters(pageable, maxMembers);
+    }
+
+    @GetMapping(value = "/teams/stats")
+    public List<TeamStatsDto> teamStats() {
+        return teamStatsService.findAll();
+    }
+
+    //team_stats 를 member 테이블에서 다시 계산, 재계산된 팀 수를 돌려준다
+    @PostMapping(value = "/teams/stats/rebuild")
+    public int rebuildTeamStats() {
+        return teamStatsService.rebuild();
+    }
+
+}
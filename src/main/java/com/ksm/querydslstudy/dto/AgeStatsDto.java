@@ -0,0 +1,21 @@
+package com.ksm.querydslstudy.dto;
+
+import lombok.Data;
+
+@Data
+public class AgeStatsDto {
+
+    private long count;
+    private long ageSum;
+    private Double ageAvg;
+    private Integer minAge;
+    private Integer maxAge;
+
+    public AgeStatsDto(long count, long ageSum, Integer minAge, Integer maxAge) {
+        this.count = count;
+        this.ageSum = ageSum;
+        this.ageAvg = count == 0 ? null : (double) ageSum / count;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ksm.querydslstudy.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+public class BulkImportResult {
+
+    //응답이 너무 커지지 않도록 에러는 앞에서부터 일부만 담는다
+    private static final int MAX_ERRORS = 100;
+
+    private long imported;
+    private long failed;
+    private int chunks;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void chunkCommitted(int rows) {
+        imported += rows;
+        chunks++;
+    }
+
+    //chunk 의 행 번호가 연속이 아닐 수 있으므로(중간 행이 rowRejected 된 경우) 실패 건수는 따로 받는다
+    public void chunkFailed(long fromRow, long toRow, int rows, String message) {
+        failed += rows;
+        chunks++;
+        addError(new RowError(fromRow, toRow, message));
+    }
+
+    public void rowRejected(long row, String message) {
+        failed++;
+        addError(new RowError(row, row + 1, message));
+    }
+
+    private void addError(RowError error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    //[fromRow, toRow) 구간, 0부터 시작하는 입력 행 번호 (CSV 헤더는 세지 않는다)
+    //실패한 chunk 의 구간에는 따로 보고된 rowRejected 행이 섞여 있을 수 있다
+    public record RowError(long fromRow, long toRow, String message) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.ksm.querydslstudy.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class CursorPage<T> {
+
+    private final List<T> content;
+    //다음 페이지 조회용 토큰, 마지막 페이지면 null
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+    public int getSize() {
+        return content.size();
+    }
+}
@@ -0,0 +1,13 @@
+package com.ksm.querydslstudy.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+//행 단위로 건너뛸 수 없는 본문 오류 (JSON 배열이 아님, CSV 헤더에 필수 컬럼 없음)
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidImportException extends IllegalArgumentException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
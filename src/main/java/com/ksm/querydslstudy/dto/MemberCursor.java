@@ -0,0 +1,55 @@
+package com.ksm.querydslstudy.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * keyset(seek) 페이징용 커서.
+ * 마지막으로 내려준 행의 정렬키 값과 member.id 를 담고, 클라이언트에는 불투명한 토큰으로만 노출한다.
+ */
+@Getter
+public class MemberCursor {
+
+    public enum SortKey {
+        ID, AGE
+    }
+
+    private final SortKey sortKey;
+    private final int age;
+    private final long id;
+
+    private MemberCursor(SortKey sortKey, int age, long id) {
+        this.sortKey = sortKey;
+        this.age = age;
+        this.id = id;
+    }
+
+    public static MemberCursor after(SortKey sortKey, MemberTeamDto last) {
+        return new MemberCursor(sortKey, last.getAge(), last.getMemberId());
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + ":" + age + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //토큰이 없으면 첫 페이지
+    public static MemberCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new InvalidCursorException(token);
+            }
+            return new MemberCursor(SortKey.valueOf(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+}
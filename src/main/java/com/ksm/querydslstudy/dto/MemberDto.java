@@ -1,9 +1,11 @@
 package com.ksm.querydslstudy.dto;
 
+import com.ksm.querydslstudy.mapper.GenerateMapper;
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+@GenerateMapper
 @Data
 @NoArgsConstructor
 public class MemberDto {
@@ -0,0 +1,16 @@
+package com.ksm.querydslstudy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberImportRow {
+
+    private String username;
+    private Integer age;
+    private String teamName;
+
+}
@@ -0,0 +1,37 @@
+package com.ksm.querydslstudy.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.ksm.querydslstudy.json.MemberPageResponseSerializer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * 회원 검색 응답 봉투.
+ * PageImpl 을 그대로 내려주면 Pageable/Sort 메타데이터까지 리플렉션으로 직렬화되므로, 다음 페이지를 부르는 데 필요한 값만 담는다.
+ * nextCursor(keyset) 와 nextPage(offset) 중 하나만 쓰이고, 다음이 없거나 total 을 구하지 않았으면(Slice) null 이며 응답에서 빠진다.
+ */
+@JsonSerialize(using = MemberPageResponseSerializer.class)
+public record MemberPageResponse(List<MemberTeamDto> content, String nextCursor, Integer nextPage, Long total) {
+
+    public static MemberPageResponse of(Page<MemberTeamDto> page) {
+        return new MemberPageResponse(page.getContent(), null, nextPage(page), page.getTotalElements());
+    }
+
+    public static MemberPageResponse of(Slice<MemberTeamDto> slice) {
+        return new MemberPageResponse(slice.getContent(), null, nextPage(slice), null);
+    }
+
+    public static MemberPageResponse of(CursorPage<MemberTeamDto> page) {
+        return new MemberPageResponse(page.getContent(), page.getNextCursor(), null, null);
+    }
+
+    public int size() {
+        return content.size();
+    }
+
+    private static Integer nextPage(Slice<MemberTeamDto> slice) {
+        return slice.hasNext() ? slice.getNumber() + 1 : null;
+    }
+}
@@ -7,8 +7,10 @@ import lombok.Setter;
 @Setter
 public class MemberSearchCondition {
 
-    //회원명, 팀명, 나이(ageGoe, ageLoe)
+    //회원명, 회원명 접두/부분(usernamePrefix, usernameContains), 팀명, 나이(ageGoe, ageLoe)
     private String username;
+    private String usernamePrefix;
+    private String usernameContains;
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
@@ -1,8 +1,10 @@
 package com.ksm.querydslstudy.dto;
 
+import com.ksm.querydslstudy.mapper.GenerateMapper;
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
 
+@GenerateMapper
 @Data
 public class MemberTeamDto {
 
@@ -0,0 +1,19 @@
+package com.ksm.querydslstudy.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TeamRosterDto {
+
+    private Long teamId;
+    private String name;
+    private List<MemberDto> members = new ArrayList<>();
+
+    public TeamRosterDto(Long teamId, String name) {
+        this.teamId = teamId;
+        this.name = name;
+    }
+}
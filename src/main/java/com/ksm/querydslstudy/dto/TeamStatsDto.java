@@ -0,0 +1,29 @@
+package com.ksm.querydslstudy.dto;
+
+import com.ksm.querydslstudy.mapper.GenerateMapper;
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+@GenerateMapper
+@Data
+public class TeamStatsDto {
+
+    private Long teamId;
+    private String teamName;
+    private long memberCount;
+    private long ageSum;
+    private Double ageAvg;
+    private Integer minAge;
+    private Integer maxAge;
+
+    @QueryProjection
+    public TeamStatsDto(Long teamId, String teamName, long memberCount, long ageSum, Integer minAge, Integer maxAge) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.ageAvg = memberCount == 0 ? null : (double) ageSum / memberCount;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+}
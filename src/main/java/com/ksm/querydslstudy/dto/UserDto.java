@@ -1,9 +1,11 @@
 package com.ksm.querydslstudy.dto;
 
+import com.ksm.querydslstudy.mapper.GenerateMapper;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+@GenerateMapper
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
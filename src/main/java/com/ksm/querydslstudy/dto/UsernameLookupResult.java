@@ -0,0 +1,18 @@
+package com.ksm.querydslstudy.dto;
+
+import com.ksm.querydslstudy.entity.Member;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 여러 회원명 일괄 조회 결과.
+ * found 는 요청 순서대로 회원명 -> 회원 목록 (회원명은 unique 가 아니므로 여러 명일 수 있다), missing 은 한 명도 없는 회원명.
+ */
+public record UsernameLookupResult(Map<String, List<Member>> found, Set<String> missing, int roundTrips) {
+
+    public List<Member> get(String username) {
+        return found.getOrDefault(username, List.of());
+    }
+}
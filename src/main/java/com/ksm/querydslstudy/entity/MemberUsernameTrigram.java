@@ -0,0 +1,48 @@
+package com.ksm.querydslstudy.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.Serializable;
+
+/**
+ * 회원명의 3글자 조각 → 회원 id 역색인. 부분 검색(usernameContains)이 member 전체를 스캔하지 않게 한다.
+ * UsernameTrigramListener 가 회원 insert/delete/회원명 변경을 커밋 직전에 반영한다.
+ * 벌크 연산 중에도 member 삭제가 막히지 않도록 member 에 대한 FK 는 두지 않는다.
+ */
+@Entity
+//조각으로 찾는 검색은 기본키 (trigram, member_id) 를 그대로 쓰고, 회원 id 로 지울 때만 별도 인덱스를 쓴다
+@Table(name = "member_username_trigram",
+        indexes = @Index(name = "idx_username_trigram_member", columnList = "member_id"))
+@IdClass(MemberUsernameTrigram.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberUsernameTrigram {
+
+    @Id
+    @Column(length = 3)
+    private String trigram;
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String trigram;
+        private Long memberId;
+    }
+}
@@ -0,0 +1,39 @@
+package com.ksm.querydslstudy.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 팀별 회원 수/나이 합계/최소/최대 요약.
+ * TeamStatsListener 가 회원 변경을 커밋 직전에 반영하고, TeamStatsService.rebuild() 가 member 테이블에서 다시 계산한다.
+ * 재계산 중 팀 삭제가 막히지 않도록 team 에 대한 FK 는 두지 않는다.
+ */
+@Entity
+@Table(name = "team_stats")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    @Column(name = "member_count", nullable = false)
+    private long memberCount;
+
+    @Column(name = "age_sum", nullable = false)
+    private long ageSum;
+
+    @Column(name = "min_age")
+    private Integer minAge;
+
+    @Column(name = "max_age")
+    private Integer maxAge;
+}
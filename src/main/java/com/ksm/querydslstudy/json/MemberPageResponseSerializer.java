@@ -0,0 +1,85 @@
+package com.ksm.querydslstudy.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.ksm.querydslstudy.dto.MemberPageResponse;
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+
+import java.io.IOException;
+
+/**
+ * MemberPageResponse 전용 직렬화.
+ * BeanSerializer 의 프로퍼티 탐색/리플렉션 접근 없이 MemberTeamDto 필드를 generator 에 바로 쓴다.
+ * 필드명은 미리 인코딩해둔 SerializedString 을 재사용하고, 행은 generator 버퍼를 거쳐 응답 스트림으로 바로 나간다.
+ */
+public class MemberPageResponseSerializer extends StdSerializer<MemberPageResponse> {
+
+    private static final SerializableString CONTENT = new SerializedString("content");
+    private static final SerializableString NEXT_CURSOR = new SerializedString("nextCursor");
+    private static final SerializableString NEXT_PAGE = new SerializedString("nextPage");
+    private static final SerializableString SIZE = new SerializedString("size");
+    private static final SerializableString TOTAL = new SerializedString("total");
+
+    //MemberTeamDto 필드, 기본 직렬화와 같은 이름
+    private static final SerializableString MEMBER_ID = new SerializedString("memberId");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString AGE = new SerializedString("age");
+    private static final SerializableString TEAM_ID = new SerializedString("teamId");
+    private static final SerializableString TEAM_NAME = new SerializedString("teamName");
+
+    public MemberPageResponseSerializer() {
+        super(MemberPageResponse.class);
+    }
+
+    @Override
+    public void serialize(MemberPageResponse page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(CONTENT);
+        gen.writeStartArray(page.content(), page.size());
+        for (MemberTeamDto row : page.content()) {
+            writeRow(row, gen);
+        }
+        gen.writeEndArray();
+        if (page.nextCursor() != null) {
+            gen.writeFieldName(NEXT_CURSOR);
+            gen.writeString(page.nextCursor());
+        }
+        if (page.nextPage() != null) {
+            gen.writeFieldName(NEXT_PAGE);
+            gen.writeNumber(page.nextPage());
+        }
+        gen.writeFieldName(SIZE);
+        gen.writeNumber(page.size());
+        if (page.total() != null) {
+            gen.writeFieldName(TOTAL);
+            gen.writeNumber(page.total());
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeRow(MemberTeamDto row, JsonGenerator gen) throws IOException {
+        gen.writeStartObject(row, 5);
+        gen.writeFieldName(MEMBER_ID);
+        writeNullableNumber(row.getMemberId(), gen);
+        gen.writeFieldName(USERNAME);
+        gen.writeString(row.getUsername());
+        gen.writeFieldName(AGE);
+        gen.writeNumber(row.getAge());
+        gen.writeFieldName(TEAM_ID);
+        writeNullableNumber(row.getTeamId(), gen);
+        gen.writeFieldName(TEAM_NAME);
+        gen.writeString(row.getTeamName());
+        gen.writeEndObject();
+    }
+
+    private static void writeNullableNumber(Long value, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
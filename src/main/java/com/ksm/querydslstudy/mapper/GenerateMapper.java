@@ -0,0 +1,15 @@
+package com.ksm.querydslstudy.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * mapper-processor 가 이 DTO 의 XxxMapper(리플렉션 없는 projection)를 생성하게 한다.
+ * 조회 결과를 담는 DTO 에만 붙인다. 검색 조건, 응답 봉투처럼 projection 으로 쓰지 않는 타입에는 붙이지 않는다.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateMapper {
+}
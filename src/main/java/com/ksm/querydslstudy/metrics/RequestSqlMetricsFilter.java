@@ -0,0 +1,54 @@
+package com.ksm.querydslstudy.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * 요청 하나가 실행한 SQL 문장 수와 읽은 행 수를 uri 패턴별 분포로 기록한다.
+ * ex) /v3/members 의 페이지 깊이/조건별로 문장 수가 튀는 요청을 찾는 용도
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestSqlMetricsFilter extends OncePerRequestFilter {
+
+    private final SqlStatementRecorder recorder;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        recorder.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementRecorder.Recording recording = recorder.stop();
+            String uri = uri(request);
+            DistributionSummary.builder("http.server.sql.statements")
+                    .tag("uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(recording.getStatements());
+            DistributionSummary.builder("http.server.sql.rows")
+                    .tag("uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(recording.getRows());
+        }
+    }
+
+    //태그 수가 무한히 늘지 않도록 실제 경로 대신 매핑된 패턴을 쓴다
+    private String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+}
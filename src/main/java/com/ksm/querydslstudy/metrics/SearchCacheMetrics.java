@@ -0,0 +1,47 @@
+package com.ksm.querydslstudy.metrics;
+
+import com.ksm.querydslstudy.cache.CacheStats;
+import com.ksm.querydslstudy.repository.MemberCountCache;
+import com.ksm.querydslstudy.repository.MemberSearchCache;
+import com.ksm.querydslstudy.repository.TeamIdResolver;
+import com.ksm.querydslstudy.repository.UsernameGramFrequencies;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * 검색 결과/전체 건수/팀 id/trigram 빈도 캐시의 hit, miss, eviction, size.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchCacheMetrics implements MeterBinder {
+
+    private final MemberSearchCache searchCache;
+    private final MemberCountCache countCache;
+    private final TeamIdResolver teamIdResolver;
+    private final UsernameGramFrequencies gramFrequencies;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "member.search.result", searchCache::stats);
+        bind(registry, "member.search.count", countCache::stats);
+        bind(registry, "member.search.team-id", teamIdResolver::stats);
+        bind(registry, "member.search.gram-frequency", gramFrequencies::stats);
+    }
+
+    private void bind(MeterRegistry registry, String cache, Supplier<CacheStats> stats) {
+        FunctionCounter.builder("cache.gets", stats, s -> s.get().hits())
+                .tag("cache", cache).tag("result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", stats, s -> s.get().misses())
+                .tag("cache", cache).tag("result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", stats, s -> s.get().evictions())
+                .tag("cache", cache).register(registry);
+        Gauge.builder("cache.size", stats, s -> s.get().size())
+                .tag("cache", cache).register(registry);
+    }
+}
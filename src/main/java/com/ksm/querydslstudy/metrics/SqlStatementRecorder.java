@@ -0,0 +1,142 @@
+package com.ksm.querydslstudy.metrics;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * p6spy 이벤트로 실행된 SQL 문장 수와 읽은 행 수를 센다.
+ * 전체 누적치는 카운터로, 요청/테스트 단위 집계는 {@link #start()} ~ {@link #stop()} 사이 현재 스레드 기준으로 모은다.
+ * 요청 처리 중 다른 스레드에서 실행하는 쿼리(ConcurrentPageExecutor 등)는 {@link #propagate(Supplier)} 로 감싸야 같은 집계에 들어간다.
+ */
+@Component
+public class SqlStatementRecorder extends SimpleJdbcEventListener {
+
+    //리포트용으로 보관하는 SQL 개수 상한
+    private static final int MAX_RECORDED_SQL = 200;
+
+    private final ThreadLocal<Recording> current = new ThreadLocal<>();
+    private final Counter statements;
+    private final Counter rows;
+
+    public SqlStatementRecorder(MeterRegistry meterRegistry) {
+        this.statements = Counter.builder("sql.statements").description("executed JDBC statements").register(meterRegistry);
+        this.rows = Counter.builder("sql.rows").description("rows read from JDBC result sets").register(meterRegistry);
+    }
+
+    //중첩 가능: 테스트 안에서 MockMvc 요청 필터가 다시 start 해도 바깥 집계에 합쳐진다
+    public void start() {
+        current.set(new Recording(current.get()));
+    }
+
+    public Recording stop() {
+        Recording recording = current.get();
+        if (recording == null) {
+            return new Recording(null);
+        }
+        if (recording.parent == null) {
+            current.remove();
+        } else {
+            current.set(recording.parent);
+            recording.parent.merge(recording);
+        }
+        return recording;
+    }
+
+    //호출한 스레드의 집계를 작업 스레드에서도 쓰도록 넘긴다, 작업이 끝나면 작업 스레드의 원래 상태로 돌린다
+    public <T> Supplier<T> propagate(Supplier<T> task) {
+        Recording recording = current.get();
+        if (recording == null) {
+            return task;
+        }
+        return () -> {
+            Recording previous = current.get();
+            current.set(recording);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    current.remove();
+                } else {
+                    current.set(previous);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        statements.increment();
+        Recording recording = current.get();
+        if (recording != null) {
+            recording.statement(statementInformation.getSql());
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        if (!hasNext) {
+            return;
+        }
+        rows.increment();
+        Recording recording = current.get();
+        if (recording != null) {
+            recording.row();
+        }
+    }
+
+    //propagate 로 여러 스레드가 같은 집계에 쓸 수 있으므로 동기화한다
+    public static class Recording {
+
+        private final Recording parent;
+        private final List<String> sql = new ArrayList<>();
+        private int statements;
+        private long rows;
+
+        private Recording(Recording parent) {
+            this.parent = parent;
+        }
+
+        private synchronized void statement(String statement) {
+            statements++;
+            if (sql.size() < MAX_RECORDED_SQL) {
+                sql.add(statement);
+            }
+        }
+
+        private synchronized void row() {
+            rows++;
+        }
+
+        private synchronized void merge(Recording child) {
+            statements += child.statements;
+            rows += child.rows;
+            for (String statement : child.sql) {
+                if (sql.size() >= MAX_RECORDED_SQL) {
+                    break;
+                }
+                sql.add(statement);
+            }
+        }
+
+        public synchronized int getStatements() {
+            return statements;
+        }
+
+        public synchronized long getRows() {
+            return rows;
+        }
+
+        public synchronized List<String> getSql() {
+            return List.copyOf(sql);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ksm.querydslstudy.metrics;
+
+import com.ksm.querydslstudy.repository.TeamNameFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 팀명 Bloom filter 의 크기, 메모리, 잘못된 양성 확률, 조회/차단 수.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamNameFilterMetrics implements MeterBinder {
+
+    private final TeamNameFilter teamNameFilter;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("member.search.team.filter.entries", teamNameFilter, f -> f.stats().entries())
+                .register(registry);
+        Gauge.builder("member.search.team.filter.memory", teamNameFilter, f -> f.stats().memoryBytes())
+                .baseUnit("bytes").register(registry);
+        Gauge.builder("member.search.team.filter.fpp", teamNameFilter, f -> f.stats().falsePositiveRate())
+                .register(registry);
+        FunctionCounter.builder("member.search.team.filter.lookups", teamNameFilter, f -> f.stats().lookups() - f.stats().rejections())
+                .tag("result", "passed").register(registry);
+        FunctionCounter.builder("member.search.team.filter.lookups", teamNameFilter, f -> f.stats().rejections())
+                .tag("result", "rejected").register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.ksm.querydslstudy.repository;
+
+import java.time.Duration;
+
+/**
+ * @param chunkSize     한 트랜잭션에서 처리할 member.id 구간 폭
+ * @param pause         chunk 사이 대기 시간 (온라인 트래픽에 락/IO 를 양보)
+ * @param resumeAfterId 이전 실행의 {@link BulkResult#lastCompletedId()}, 이 id 다음부터 이어서 처리
+ * @param listener      chunk 마다 호출되는 진행상황 콜백
+ */
+public record BulkOptions(long chunkSize, Duration pause, Long resumeAfterId, BulkProgressListener listener) {
+
+    public BulkOptions {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+    }
+
+    public static BulkOptions of(long chunkSize) {
+        return new BulkOptions(chunkSize, Duration.ZERO, null, progress -> { });
+    }
+
+    public BulkOptions withPause(Duration pause) {
+        return new BulkOptions(chunkSize, pause, resumeAfterId, listener);
+    }
+
+    public BulkOptions resumeAfter(Long lastCompletedId) {
+        return new BulkOptions(chunkSize, pause, lastCompletedId, listener);
+    }
+
+    public BulkOptions withListener(BulkProgressListener listener) {
+        return new BulkOptions(chunkSize, pause, resumeAfterId, listener);
+    }
+
+    @FunctionalInterface
+    public interface BulkProgressListener {
+        void onChunk(BulkResult progress);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ksm.querydslstudy.repository;
+
+/**
+ * @param lastCompletedId 커밋까지 끝난 마지막 id 구간의 상한, 실패 시 {@link BulkOptions#resumeAfter(Long)} 로 넘기면 이어서 처리
+ * @param maxId           처리 대상의 최대 id
+ * @param affected        지금까지 변경/삭제된 행 수
+ * @param chunks          커밋된 chunk 수
+ * @param error           실패한 경우 원인, 성공이면 null
+ */
+public record BulkResult(Long lastCompletedId, Long maxId, long affected, int chunks, Exception error) {
+
+    public boolean isCompleted() {
+        return error == null && (maxId == null || (lastCompletedId != null && lastCompletedId >= maxId));
+    }
+}
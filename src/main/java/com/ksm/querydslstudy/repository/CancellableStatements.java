@@ -0,0 +1,71 @@
+package com.ksm.querydslstudy.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 다른 스레드에서 취소할 수 있도록 {@link #open()} 한 스레드가 실행 중인 JDBC 문장을 p6spy 이벤트로 잡아둔다.
+ * Hibernate 6 의 select 는 Session.cancelQuery 가 쓰는 마지막 문장으로 등록되지 않아서 Statement.cancel 을 직접 호출한다.
+ */
+@Slf4j
+@Component
+public class CancellableStatements extends SimpleJdbcEventListener {
+
+    private final ThreadLocal<Handle> current = new ThreadLocal<>();
+
+    //현재 스레드에서 이후 실행하는 문장을 handle 로 취소할 수 있게 한다, 끝나면 반드시 close
+    public Handle open() {
+        Handle handle = new Handle();
+        current.set(handle);
+        return handle;
+    }
+
+    public void close() {
+        current.remove();
+    }
+
+    @Override
+    public void onBeforeAnyExecute(StatementInformation statementInformation) {
+        Handle handle = current.get();
+        if (handle != null) {
+            handle.executing(statementInformation.getStatement());
+        }
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        Handle handle = current.get();
+        if (handle != null) {
+            handle.executing(null);
+        }
+    }
+
+    public static final class Handle {
+
+        private Statement statement;
+
+        private Handle() {
+        }
+
+        private synchronized void executing(Statement statement) {
+            this.statement = statement;
+        }
+
+        //실행 중인 문장이 있으면 취소한다 (실행 스레드에서는 SQLException 으로 끝난다)
+        public synchronized void cancel() {
+            if (statement == null) {
+                return;
+            }
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                log.warn("failed to cancel statement", e);
+            }
+        }
+    }
+}
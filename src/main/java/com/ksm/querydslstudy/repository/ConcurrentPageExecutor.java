@@ -0,0 +1,168 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.metrics.SqlStatementRecorder;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.QueryTimeoutException;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 페이징 검색의 count 쿼리를 content 쿼리와 동시에 실행한다.
+ * content 는 요청 스레드가 지금 트랜잭션의 커넥션으로 실행하고, count 만 풀 스레드에서 자신만의 읽기 전용 트랜잭션
+ * (= 별도 EntityManager, 커넥션)으로 실행하므로 요청 하나가 추가로 잡는 커넥션은 최대 한 개다.
+ * content 를 보고 count 를 생략할 수 있으면(마지막 페이지 등) 실행 중인 count 는 취소한다.
+ */
+@Component
+public class ConcurrentPageExecutor {
+
+    private static final String QUERY_TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+    @Getter
+    private final boolean enabled;
+    private final Duration timeout;
+    private final EntityManager em;
+    private final MemberSearchTemplates templates;
+    private final TransactionTemplate readOnlyTx;
+    private final SqlStatementRecorder recorder;
+    private final CancellableStatements statements;
+    private final ThreadPoolExecutor executor;
+
+    public ConcurrentPageExecutor(EntityManager em,
+                                  MemberSearchTemplates templates,
+                                  PlatformTransactionManager transactionManager,
+                                  SqlStatementRecorder recorder,
+                                  CancellableStatements statements,
+                                  @Value("${member.search.concurrent-count.enabled:false}") boolean enabled,
+                                  @Value("${member.search.concurrent-count.pool-size:8}") int poolSize,
+                                  @Value("${member.search.concurrent-count.timeout:5s}") Duration timeout) {
+        this.enabled = enabled;
+        this.timeout = timeout;
+        this.em = em;
+        this.templates = templates;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.recorder = recorder;
+        this.statements = statements;
+        AtomicInteger threadNumber = new AtomicInteger();
+        //대기열 없이 풀 크기만큼만 동시에 실행해서 추가 커넥션 수를 pool-size 로 묶는다
+        //풀이 다 차 있으면 submit 이 거절되고, 요청 스레드가 content 뒤에 자기 커넥션으로 count 를 실행한다
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "member-page-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * count 쿼리를 풀 스레드에서 시작한다.
+     *
+     * @param teamIds TeamIdResolver 가 찾은 팀 id 목록 (MemberSearchTemplates.content 참고)
+     * @return 실행 중인 count, 풀이 다 차 있으면 null (호출한 쪽에서 직접 count 한다)
+     */
+    public PendingCount startCount(MemberSearchKey key, List<Long> teamIds) {
+        int timeoutMillis = (int) Math.min(timeout.toMillis(), Integer.MAX_VALUE);
+        return submit(() -> templates.count(em, key, teamIds)
+                .setHint(QUERY_TIMEOUT_HINT, timeoutMillis)
+                .getSingleResult());
+    }
+
+    //query 는 풀 스레드의 읽기 전용 트랜잭션 안에서 em 으로 실행한다
+    PendingCount submit(Supplier<Long> query) {
+        PendingCount pending = new PendingCount(System.nanoTime() + timeout.toNanos());
+        try {
+            pending.future = CompletableFuture.supplyAsync(recorder.propagate(() -> readOnlyTx.execute(status -> {
+                if (!pending.started(statements.open())) {
+                    statements.close();
+                    return null;
+                }
+                try {
+                    return query.get();
+                } finally {
+                    statements.close();
+                }
+            })), executor);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+        return pending;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 풀 스레드에서 실행 중인 count.
+     * CompletableFuture.cancel 은 실행 중인 JDBC 문장을 멈추지 못하므로 cancel 은 Statement.cancel 로 문장을 취소한다.
+     */
+    public final class PendingCount {
+
+        private final long deadline;
+        private CompletableFuture<Long> future;
+        private CancellableStatements.Handle statement;
+        private boolean cancelled;
+
+        private PendingCount(long deadline) {
+            this.deadline = deadline;
+        }
+
+        //timeout 까지 기다렸다가 넘으면 count 를 취소하고 QueryTimeoutException
+        public long join() {
+            try {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                cancel();
+                throw new QueryTimeoutException("paged member count exceeded " + timeout);
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for paged member count", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        //아직 시작 전이면 실행하지 않고, 실행 중이면 JDBC 문장을 취소한다 (이미 끝났으면 아무 일도 없다)
+        public synchronized void cancel() {
+            cancelled = true;
+            if (statement != null) {
+                statement.cancel();
+            }
+        }
+
+        CompletableFuture<Long> future() {
+            return future;
+        }
+
+        private synchronized boolean started(CancellableStatements.Handle statement) {
+            if (cancelled) {
+                return false;
+            }
+            this.statement = statement;
+            return true;
+        }
+    }
+}
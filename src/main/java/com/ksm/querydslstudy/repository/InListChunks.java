@@ -0,0 +1,53 @@
+package com.ksm.querydslstudy.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * IN 목록을 최대 크기 이하의 조각으로 나누고, 각 조각을 2의 거듭제곱 크기로 채운다.
+ * 파라미터 개수마다 SQL 이 달라지므로 그대로 두면 Hibernate/DB 의 플랜 캐시에 크기별로 쌓이는데,
+ * 1, 2, 4, ... maxChunk 크기만 쓰게 하면 SQL 종류가 log2(maxChunk) + 1 개로 줄어든다.
+ * 빈 자리는 마지막 값을 반복해서 채우므로 결과는 달라지지 않는다.
+ */
+public final class InListChunks {
+
+    private InListChunks() {
+    }
+
+    /**
+     * @param values   중복이 없는 값 목록
+     * @param maxChunk 한 조각의 최대 크기, 2의 거듭제곱이어야 한다
+     */
+    public static <T> List<List<T>> split(Collection<T> values, int maxChunk) {
+        if (maxChunk <= 0 || Integer.bitCount(maxChunk) != 1) {
+            throw new IllegalArgumentException("maxChunk must be a power of two: " + maxChunk);
+        }
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(Math.min(values.size(), maxChunk));
+        for (T value : values) {
+            chunk.add(value);
+            if (chunk.size() == maxChunk) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(maxChunk);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(pad(chunk));
+        }
+        return chunks;
+    }
+
+    public static int paddedSize(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private static <T> List<T> pad(List<T> chunk) {
+        int target = paddedSize(chunk.size());
+        T last = chunk.get(chunk.size() - 1);
+        while (chunk.size() < target) {
+            chunk.add(last);
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,193 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.search.UsernameTrigramIndex;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongUnaryOperator;
+
+import static com.ksm.querydslstudy.entity.QMember.member;
+
+/**
+ * 대량 update/delete 를 member.id 구간 단위로 나눠 실행한다.
+ * QueryDslMiddleTest 의 bulkUpdate/bulkDelete 처럼 한 문장으로 전체를 처리하면 락을 오래 잡고 undo 가 커지므로,
+ * 구간마다 별도 트랜잭션으로 커밋하고 필요하면 구간 사이에 쉬어간다.
+ * 구간이 겹치지 않으므로 조건이 변경 대상 컬럼을 포함해도(ex. age = age + 1) 같은 행이 두번 처리되지 않는다.
+ * 호출하는 쪽 트랜잭션과 무관하게 chunk 마다 커밋되므로 트랜잭션 밖에서 호출한다.
+ * 회원명이 바뀌는 연산은 chunk 트랜잭션 안에서 그 구간의 trigram 색인도 같이 다시 만든다.
+ */
+@Slf4j
+@Repository
+public class MemberBulkRepository {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+    private final TransactionTemplate chunkTx;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UsernameTrigramIndex trigramIndex;
+
+    public MemberBulkRepository(JPAQueryFactory queryFactory, EntityManager em, PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher, UsernameTrigramIndex trigramIndex) {
+        this.queryFactory = queryFactory;
+        this.em = em;
+        this.eventPublisher = eventPublisher;
+        this.trigramIndex = trigramIndex;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    //ex) update(member.age.lt(25), clause -> clause.set(member.username, "비회원"), BulkOptions.of(10_000))
+    public BulkResult update(Predicate filter, Consumer<JPAUpdateClause> assignments, BulkOptions options) {
+        AssignedPaths assigned = new AssignedPaths(em);
+        assignments.accept(assigned);
+        boolean usernamesChanged = assigned.paths.contains(member.username);
+        return run("update", usernamesChanged, filter, options, (range) -> {
+            JPAUpdateClause clause = queryFactory.update(member);
+            assignments.accept(clause);
+            return clause.where(filter, range).execute();
+        });
+    }
+
+    public BulkResult delete(Predicate filter, BulkOptions options) {
+        return run("delete", true, filter, options, (range) -> queryFactory
+                .delete(member)
+                .where(filter, range)
+                .execute());
+    }
+
+    private BulkResult run(String operation, boolean usernamesChanged, Predicate filter, BulkOptions options,
+                           ChunkStatement statement) {
+        BulkResult result = runChunks(operation, usernamesChanged, filter, options, statement);
+        //실패해도 앞 chunk 들은 커밋됐으므로 바뀐 행이 있으면 커밋된 구간까지 알린다
+        if (result.affected() > 0) {
+            long afterId = options.resumeAfterId() == null ? Long.MIN_VALUE : options.resumeAfterId();
+            eventPublisher.publishEvent(new MemberBulkWriteEvent(
+                    operation, result.affected(), afterId, result.lastCompletedId(), usernamesChanged));
+        }
+        return result;
+    }
+
+    private BulkResult runChunks(String operation, boolean usernamesChanged, Predicate filter, BulkOptions options,
+                                 ChunkStatement statement) {
+        Long maxId = chunkTx.execute(status -> queryFactory
+                .select(member.id.max())
+                .from(member)
+                .where(filter)
+                .fetchOne());
+        if (maxId == null) {
+            return new BulkResult(options.resumeAfterId(), null, 0, 0, null);
+        }
+
+        LongUnaryOperator nextStart = after -> {
+            Long next = chunkTx.execute(status -> queryFactory
+                    .select(member.id.min())
+                    .from(member)
+                    .where(filter, member.id.gt(after))
+                    .fetchOne());
+            return next == null ? maxId : next - 1;
+        };
+
+        //lower 는 exclusive, 처리 구간은 (lower, upper]
+        long lower = nextStart.applyAsLong(options.resumeAfterId() == null ? Long.MIN_VALUE : options.resumeAfterId());
+        long affected = 0;
+        int chunks = 0;
+        while (lower < maxId) {
+            long from = lower;
+            long upper = Math.min(maxId, lower + options.chunkSize());
+            BooleanExpression range = member.id.gt(lower).and(member.id.loe(upper));
+            long chunkAffected;
+            try {
+                chunkAffected = chunkTx.execute(status -> {
+                    long rows = statement.execute(range);
+                    //색인도 chunk 와 같이 커밋되므로 전체 구간을 한 트랜잭션으로 다시 만들 필요가 없다
+                    if (usernamesChanged && rows > 0) {
+                        trigramIndex.rebuild(from, upper);
+                    }
+                    return rows;
+                });
+            } catch (RuntimeException e) {
+                log.warn("bulk {} failed in ({}, {}], resume after {}", operation, lower, upper, lower, e);
+                return new BulkResult(lower, maxId, affected, chunks, e);
+            }
+            affected += chunkAffected;
+            chunks++;
+            //빈 구간이 이어지면 다음 대상 id 로 건너뛴다
+            lower = chunkAffected == 0 ? Math.max(upper, nextStart.applyAsLong(upper)) : upper;
+
+            BulkResult progress = new BulkResult(lower, maxId, affected, chunks, null);
+            options.listener().onChunk(progress);
+            if (!pause(options)) {
+                return new BulkResult(lower, maxId, affected, chunks, new InterruptedException("bulk " + operation + " interrupted"));
+            }
+        }
+        log.info("bulk {} finished: affected={}, chunks={}", operation, affected, chunks);
+        return new BulkResult(lower, maxId, affected, chunks, null);
+    }
+
+    private boolean pause(BulkOptions options) {
+        if (options.pause().isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(options.pause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    //assignments 가 set 하는 경로만 모은다, 실행하지 않는다
+    private static class AssignedPaths extends JPAUpdateClause {
+
+        private final Set<Path<?>> paths = new HashSet<>();
+
+        AssignedPaths(EntityManager em) {
+            super(em, member);
+        }
+
+        @Override
+        public <T> JPAUpdateClause set(Path<T> path, T value) {
+            paths.add(path);
+            return super.set(path, value);
+        }
+
+        @Override
+        public <T> JPAUpdateClause set(Path<T> path, Expression<? extends T> expression) {
+            paths.add(path);
+            return super.set(path, expression);
+        }
+
+        @Override
+        public <T> JPAUpdateClause setNull(Path<T> path) {
+            paths.add(path);
+            return super.setNull(path);
+        }
+
+        @Override
+        public JPAUpdateClause set(List<? extends Path<?>> paths, List<?> values) {
+            this.paths.addAll(paths);
+            return super.set(paths, values);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkStatement {
+        long execute(BooleanExpression range);
+    }
+}
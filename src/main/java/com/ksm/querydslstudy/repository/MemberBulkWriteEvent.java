@@ -0,0 +1,11 @@
+package com.ksm.querydslstudy.repository;
+
+/**
+ * 엔티티 이벤트 없이 member 를 바꾼 벌크 연산이 끝났을 때 발행한다. 파생 데이터(team_stats 등)를 다시 맞추는 데 쓴다.
+ *
+ * @param afterId          처리한 id 구간의 시작 (exclusive), 처음부터면 Long.MIN_VALUE
+ * @param toId             처리한 id 구간의 끝 (inclusive), 중간에 실패했으면 마지막으로 커밋된 구간까지
+ * @param usernamesChanged 회원명이 바뀌었거나(update 가 username 을 set) 회원이 지워졌는지
+ */
+public record MemberBulkWriteEvent(String operation, long affected, long afterId, long toId, boolean usernamesChanged) {
+}
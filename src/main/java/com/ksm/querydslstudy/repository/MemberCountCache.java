@@ -0,0 +1,61 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.cache.CacheStats;
+import com.ksm.querydslstudy.cache.ReadCachePolicy;
+import com.ksm.querydslstudy.cache.TableVersions;
+import com.ksm.querydslstudy.cache.TtlLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * 페이징 검색의 전체 건수 캐시.
+ * 정확히 최신일 필요는 없으므로 TTL 동안 재사용하고, member/team 에 쓰기가 발생하면 버린다.
+ */
+@Component
+public class MemberCountCache {
+
+    private static final String[] TABLES = {"member", "team"};
+
+    private final TableVersions tableVersions;
+    private final TtlLruCache<MemberSearchKey, Long> cache;
+
+    public MemberCountCache(TableVersions tableVersions,
+                            @Value("${member.search.count-cache.max-size:1000}") int maxSize,
+                            @Value("${member.search.count-cache.ttl:30s}") Duration ttl) {
+        this.tableVersions = tableVersions;
+        this.cache = new TtlLruCache<>(maxSize, ttl);
+    }
+
+    public long getOrCount(MemberSearchKey key, Supplier<Long> countQuery) {
+        if (!ReadCachePolicy.isCacheable()) {
+            return countQuery.get();
+        }
+        return cache.getOrLoad(key, tableVersions.stamp(TABLES), countQuery);
+    }
+
+    //캐시에 있으면 전체 건수, 없으면 null (count 쿼리는 실행하지 않는다)
+    public Long peek(MemberSearchKey key) {
+        if (!ReadCachePolicy.isCacheable()) {
+            return null;
+        }
+        return cache.get(key, tableVersions.stamp(TABLES));
+    }
+
+    //count 쿼리를 생략하고 계산한 전체 건수도 저장해둔다
+    public void put(MemberSearchKey key, long total, long stamp) {
+        if (ReadCachePolicy.isCacheable()) {
+            cache.put(key, total, stamp);
+        }
+    }
+
+    public long stamp() {
+        return tableVersions.stamp(TABLES);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -1,16 +1,29 @@
 package com.ksm.querydslstudy.repository;
 
+import com.ksm.querydslstudy.dto.AgeStatsDto;
+import com.ksm.querydslstudy.dto.CursorPage;
+import com.ksm.querydslstudy.dto.MemberCursor;
 import com.ksm.querydslstudy.dto.MemberSearchCondition;
 import com.ksm.querydslstudy.dto.MemberTeamDto;
+import com.ksm.querydslstudy.dto.UsernameLookupResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
 
     List<MemberTeamDto> search(MemberSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+    CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, int size);
+    CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor.SortKey sortKey, String cursor, int size);
+    Stream<MemberTeamDto> searchStream(MemberSearchCondition condition, int fetchSize);
+    AgeStatsDto ageStats(MemberSearchCondition condition);
+    UsernameLookupResult findAllByUsernames(Collection<String> usernames);
 
 }
@@ -1,30 +1,218 @@
 package com.ksm.querydslstudy.repository;
 
+import com.ksm.querydslstudy.cache.ReadCachePolicy;
+import com.ksm.querydslstudy.dto.AgeStatsDto;
+import com.ksm.querydslstudy.dto.CursorPage;
+import com.ksm.querydslstudy.dto.MemberCursor;
 import com.ksm.querydslstudy.dto.MemberSearchCondition;
 import com.ksm.querydslstudy.dto.MemberTeamDto;
 import com.ksm.querydslstudy.dto.QMemberTeamDto;
-import com.querydsl.core.QueryResults;
+import com.ksm.querydslstudy.dto.UsernameLookupResult;
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.snapshot.MemberSnapshot;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static com.ksm.querydslstudy.entity.QMember.member;
+import static com.ksm.querydslstudy.entity.QMemberUsernameTrigram.memberUsernameTrigram;
 import static com.ksm.querydslstudy.entity.QTeam.team;
 
+//조회 전용이므로 읽기 전용 트랜잭션으로 실행 (라우팅이 켜져 있으면 replica 로 간다)
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    //IN 파라미터 최대 개수, 2의 거듭제곱 (Oracle 의 1000개 제한보다 작게)
+    private static final int USERNAME_IN_CHUNK = 512;
+
     private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+    private final MemberSearchTemplates templates;
+    private final SearchQueryHints hints;
+    private final MemberCountCache countCache;
+    private final MemberSearchCache searchCache;
+    private final ConcurrentPageExecutor concurrentPageExecutor;
+    private final MemberSnapshot snapshot;
+    private final TeamNameFilter teamNameFilter;
+    private final TeamIdResolver teamIdResolver;
+    private final UsernameGramFrequencies gramFrequencies;
 
     @Override
     //회원명, 팀명, 나이(ageGoe, ageLoe)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        if (!teamNameFilter.mightMatch(key)) {
+            return List.of();
+        }
+        return searchCache.list(key, () -> {
+            if (snapshot.canAnswer(key)) {
+                return snapshot.content(key, 0, Integer.MAX_VALUE);
+            }
+            List<Long> teamIds = teamIdResolver.resolve(key.teamName());
+            return noSuchTeam(teamIds) ? List.of() : templates.content(em, key, teamIds).getResultList();
+        });
+    }
+
+    //simple/complex 는 count 생략과 캐시가 들어가면서 구현이 같아져 하나로 합쳤다 (캐시도 같이 쓴다)
+    @Override
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        return searchPage(condition, pageable);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        return searchPage(condition, pageable);
+    }
+
+    private Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        if (!teamNameFilter.mightMatch(key)) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        return searchCache.page("searchPage", key, pageable,
+                () -> fetchPage(condition, pageable));
+    }
+
+    private Page<MemberTeamDto> fetchPage(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        //나이/팀 조건만 있으면 메모리 스냅샷에서 content 와 전체 건수를 바로 구한다
+        if (snapshot.canAnswer(key)) {
+            List<MemberTeamDto> content = pageable.isPaged()
+                    ? snapshot.content(key, pageable.getOffset(), pageable.getPageSize())
+                    : snapshot.content(key, 0, Integer.MAX_VALUE);
+            return new PageImpl<>(content, pageable, snapshot.count(key));
+        }
+        //팀명을 팀 id 로 바꿔서 조인 없이 member.team_id 로 거른다
+        List<Long> teamIds = teamIdResolver.resolve(key.teamName());
+        if (noSuchTeam(teamIds)) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        long stamp = countCache.stamp();
+        //setFirstResult 는 int 라서 그보다 먼 offset 은 결과 끝을 지난 페이지로 보고 count 만 구한다
+        if (pageable.isPaged() && pageable.getOffset() > Integer.MAX_VALUE) {
+            return toPage(List.of(), pageable, key, teamIds, stamp, null);
+        }
+        //캐시된 전체 건수가 없으면 count 를 풀에서 먼저 시작하고 content 와 동시에 실행한다
+        //별도 커넥션에서는 현재 쓰기 트랜잭션의 변경이 보이지 않으므로 커밋된 데이터만 읽는 경우에만 동시 실행
+        ConcurrentPageExecutor.PendingCount pendingCount = null;
+        if (concurrentPageExecutor.isEnabled() && pageable.isPaged() && ReadCachePolicy.isCacheable()
+                && countCache.peek(key) == null) {
+            pendingCount = concurrentPageExecutor.startCount(key, teamIds);
+        }
+        try {
+            List<MemberTeamDto> content = templates.content(em, key, teamIds)
+                    .setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize())
+                    .getResultList();
+
+            return toPage(content, pageable, key, teamIds, stamp, pendingCount);
+        } finally {
+            //count 를 생략했거나 content 가 실패하면 실행 중인 count 를 취소한다 (이미 끝났으면 아무 일도 없다)
+            if (pendingCount != null) {
+                pendingCount.cancel();
+            }
+        }
+    }
+
+    //전체 건수가 필요 없는 페이징, 한 건 더 읽어서 다음 페이지 여부만 판단하므로 count 쿼리를 실행하지 않는다
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        if (!teamNameFilter.mightMatch(key)) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(search(condition), pageable, false);
+        }
+        if (pageable.getOffset() > Integer.MAX_VALUE) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        List<MemberTeamDto> content;
+        if (snapshot.canAnswer(key)) {
+            content = snapshot.content(key, pageable.getOffset(), pageable.getPageSize() + 1);
+        } else {
+            List<Long> teamIds = teamIdResolver.resolve(key.teamName());
+            if (noSuchTeam(teamIds)) {
+                return new SliceImpl<>(List.of(), pageable, false);
+            }
+            content = templates.content(em, key, teamIds)
+                    .setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize() + 1)
+                    .getResultList();
+        }
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    private static boolean noSuchTeam(List<Long> teamIds) {
+        return teamIds != null && teamIds.isEmpty();
+    }
+
+    //countQuery 최적화
+    //count 쿼리가 생략 가능한 경우 생략해서 처리
+    //페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때
+    //마지막 페이지 일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈 구함, 더 정확히는 마지막 페이지이면
+    //서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때)
+    //생략하지 못하면 캐시된 전체 건수를 쓰고, 그것도 없을 때만 count 쿼리를 날린다 (미리 시작한 count 가 있으면 그 결과를 기다린다)
+    private Page<MemberTeamDto> toPage(List<MemberTeamDto> content, Pageable pageable,
+                                       MemberSearchKey key, List<Long> teamIds, long stamp,
+                                       ConcurrentPageExecutor.PendingCount pendingCount) {
+        Long elidedTotal = elidedTotal(content, pageable);
+        if (elidedTotal != null) {
+            countCache.put(key, elidedTotal, stamp);
+            return new PageImpl<>(content, pageable, elidedTotal);
+        }
+        long total = countCache.getOrCount(key, () -> pendingCount != null
+                ? pendingCount.join()
+                : templates.count(em, key, teamIds).getSingleResult());
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private Long elidedTotal(List<MemberTeamDto> content, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return (long) content.size();
+        }
+        if (pageable.getOffset() == 0 && pageable.getPageSize() > content.size()) {
+            return (long) content.size();
+        }
+        if (!content.isEmpty() && pageable.getPageSize() > content.size()) {
+            return pageable.getOffset() + content.size();
+        }
+        return null;
+    }
+
+    //전체 결과를 List 로 만들지 않고 forward-only 커서로 한 건씩 읽는다
+    //반환된 Stream 은 트랜잭션 안에서 소비하고 반드시 close 해야 커넥션이 반납된다
+    //메서드 트랜잭션은 Stream 을 돌려주는 순간 끝나므로 호출한 쪽의 트랜잭션을 요구한다 (없으면 IllegalTransactionStateException)
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<MemberTeamDto> searchStream(MemberSearchCondition condition, int fetchSize) {
+        if (!teamNameFilter.mightMatch(MemberSearchKey.of(condition))) {
+            return Stream.empty();
+        }
+        return hints.apply(queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
                         member.username,
@@ -34,40 +222,108 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
+                        usernamePrefix(condition.getUsernamePrefix()),
+                        usernameContains(condition.getUsernameContains()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetch();
+                        ageLoe(condition.getAgeLoe())), fetchSize)
+                .stream();
     }
 
+    //QueryDslBasicTest.aggregation 과 같은 집계, 스냅샷이 켜져 있고 나이/팀 조건뿐이면 DB 를 타지 않는다
     @Override
-    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> results = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
+    public AgeStatsDto ageStats(MemberSearchCondition condition) {
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        if (!teamNameFilter.mightMatch(key)) {
+            return new AgeStatsDto(0, 0, null, null);
+        }
+        if (snapshot.canAnswer(key)) {
+            return snapshot.ageStats(key);
+        }
+        JPAQuery<Tuple> query = queryFactory
+                .select(member.count(),
+                        member.age.sum(),
+                        member.age.min(),
+                        member.age.max())
+                .from(member);
+        //팀 컬럼은 조회하지 않으므로 팀명을 team_id 로 거를 수 있으면 team 을 조인하지 않는다
+        if (filtersByTeamJoin(condition.getTeamName())) {
+            query.join(member.team, team);
+        }
+        Tuple tuple = hints.apply(query
                 .where(usernameEq(condition.getUsername()),
+                        usernamePrefix(condition.getUsernamePrefix()),
+                        usernameContains(condition.getUsernameContains()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetchResults();
+                        ageLoe(condition.getAgeLoe())))
+                .fetchOne();
+        //sum/min/max 의 실제 타입은 JPA 구현에 따라 Long/Integer 이므로 Number 로 받는다
+        Number count = tuple.get(0, Number.class);
+        Number sum = tuple.get(1, Number.class);
+        Number min = tuple.get(2, Number.class);
+        Number max = tuple.get(3, Number.class);
+        return new AgeStatsDto(count == null ? 0 : count.longValue(),
+                sum == null ? 0 : sum.longValue(),
+                min == null ? null : min.intValue(),
+                max == null ? null : max.intValue());
+    }
 
-        List<MemberTeamDto> content = results.getResults();
-        long total = results.getTotal();
+    @Override
+    //findByUsername 을 회원명마다 부르는 대신 IN 조각 단위로 조회한다 (512명당 쿼리 1번)
+    public UsernameLookupResult findAllByUsernames(Collection<String> usernames) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String username : usernames) {
+            if (username != null) {
+                distinct.add(username);
+            }
+        }
+        Map<String, List<Member>> byUsername = new LinkedHashMap<>();
+        List<List<String>> chunks = InListChunks.split(distinct, USERNAME_IN_CHUNK);
+        for (List<String> chunk : chunks) {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .where(member.username.in(chunk))
+                    .orderBy(member.id.asc())
+                    .fetch();
+            for (Member found : members) {
+                byUsername.computeIfAbsent(found.getUsername(), username -> new ArrayList<>()).add(found);
+            }
+        }
 
-        return new PageImpl<>(content, pageable, total);
+        //요청 순서대로 다시 담고, 조회되지 않은 회원명은 missing 으로
+        Map<String, List<Member>> found = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String username : distinct) {
+            List<Member> members = byUsername.get(username);
+            if (members == null) {
+                missing.add(username);
+            } else {
+                found.put(username, members);
+            }
+        }
+        return new UsernameLookupResult(found, missing, chunks.size());
     }
 
     @Override
-    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
+    public CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, int size) {
+        return searchByCursor(condition, MemberCursor.SortKey.ID, cursor, size);
+    }
+
+    //offset 대신 마지막 행의 (정렬키, id) 이후부터 seek 하므로 페이지 깊이와 무관하게 일정한 비용
+    @Override
+    public CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor.SortKey sortKey, String cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        MemberCursor after = MemberCursor.decode(cursor);
+        if (!teamNameFilter.mightMatch(MemberSearchKey.of(condition))) {
+            return new CursorPage<>(List.of(), null);
+        }
+        //이어서 조회할 때는 커서에 담긴 정렬키를 따른다
+        MemberCursor.SortKey key = after == null ? sortKey : after.getSortKey();
+
+        List<MemberTeamDto> rows = hints.apply(queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
                         member.username,
@@ -77,51 +333,85 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
+                        usernamePrefix(condition.getUsernamePrefix()),
+                        usernameContains(condition.getUsernameContains()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                        ageLoe(condition.getAgeLoe()),
+                        seekAfter(key, after))
+                .orderBy(cursorOrder(key))
+                .limit(size + 1))
                 .fetch();
 
-        Long total = queryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetchOne();
+        //size + 1 개를 가져와서 다음 페이지 존재 여부를 판단
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<MemberTeamDto> content = rows.subList(0, size);
+        String nextCursor = MemberCursor.after(key, content.get(size - 1)).encode();
+        return new CursorPage<>(content, nextCursor);
+    }
 
-        return new PageImpl<>(content, pageable, total);
+    private BooleanExpression seekAfter(MemberCursor.SortKey key, MemberCursor after) {
+        if (after == null) {
+            return null;
+        }
+        if (key == MemberCursor.SortKey.AGE) {
+            return member.age.gt(after.getAge())
+                    .or(member.age.eq(after.getAge()).and(member.id.gt(after.getId())));
+        }
+        return member.id.gt(after.getId());
+    }
 
+    private OrderSpecifier<?>[] cursorOrder(MemberCursor.SortKey key) {
+        if (key == MemberCursor.SortKey.AGE) {
+            return new OrderSpecifier<?>[]{member.age.asc(), member.id.asc()};
+        }
+        return new OrderSpecifier<?>[]{member.id.asc()};
+    }
 
-        //countQuery 최적화
-        //count 쿼리가 생략 가능한 경우 생략해서 처리
-        //페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때
-        //마지막 페이지 일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈 구함, 더 정확히는 마지막 페이지이면
-        //서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때)
-//        JPAQuery<Long> countQuery = queryFactory
-//                .select(member.count())
-//                .from(member)
-//                .leftJoin(member.team, team)
-//                .where(usernameEq(condition.getUsername()),
-//                        teamNameEq(condition.getTeamName()),
-//                        ageGoe(condition.getAgeGoe()),
-//                        ageLoe(condition.getAgeLoe()));
-//
-//        return PageableExecutionUtils.getPage(content, pageable, () -> countQuery.fetchOne());
+    private BooleanExpression usernameEq(String username) {
+        return username == null || username.isEmpty() ? null : member.username.eq(username);
+    }
 
+    //MemberSearchTemplates 와 같은 방식: 접두는 범위 조건, 부분은 trigram 후보 + like 확인
+    private BooleanExpression usernamePrefix(String prefix) {
+        return prefix == null || prefix.isEmpty() ? null
+                : member.username.goe(prefix).and(member.username.lt(UsernameTrigrams.prefixEnd(prefix)));
     }
 
+    private BooleanExpression usernameContains(String term) {
+        if (term == null || term.isEmpty()) {
+            return null;
+        }
+        if (!UsernameTrigrams.indexable(term)) {
+            return member.username.contains(term);
+        }
+        List<String> grams = gramFrequencies.searchGrams(term);
+        return member.id.in(JPAExpressions
+                        .select(memberUsernameTrigram.memberId)
+                        .from(memberUsernameTrigram)
+                        .where(memberUsernameTrigram.trigram.in(grams))
+                        .groupBy(memberUsernameTrigram.memberId)
+                        .having(memberUsernameTrigram.trigram.count().eq((long) grams.size())))
+                .and(member.username.contains(term));
+    }
 
-    private BooleanExpression usernameEq(String username) {
-        return username == null || username.isEmpty() ? null : member.username.eq(username);
+    private boolean filtersByTeamJoin(String teamName) {
+        return teamName != null && !teamName.isEmpty() && teamIdResolver.resolve(teamName) == null;
     }
 
+    //팀 id 를 알면 조인한 team.name 대신 member.team_id 로 거른다
     private BooleanExpression teamNameEq(String teamName) {
-        return teamName == null || teamName.isEmpty() ? null : team.name.eq(teamName);
+        if (teamName == null || teamName.isEmpty()) {
+            return null;
+        }
+        List<Long> teamIds = teamIdResolver.resolve(teamName);
+        if (teamIds == null) {
+            return team.name.eq(teamName);
+        }
+        //없는 팀명, member_id 는 null 이 아니므로 항상 거짓
+        return teamIds.isEmpty() ? member.id.isNull() : member.team.id.in(teamIds);
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
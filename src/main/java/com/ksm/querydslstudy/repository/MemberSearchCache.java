@@ -0,0 +1,78 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.cache.CacheStats;
+import com.ksm.querydslstudy.cache.ReadCachePolicy;
+import com.ksm.querydslstudy.cache.TableVersions;
+import com.ksm.querydslstudy.cache.TtlLruCache;
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 동일 검색조건 결과 캐시 (search / searchPage*).
+ * 크기 초과 시 LRU 로 밀어내고, TTL 이 지나거나 member/team 에 쓰기가 발생하면 버린다.
+ * MemberTeamDto 는 setter 가 있는 가변 객체라, 적재할 때와 꺼낼 때 모두 복사해서 호출한 쪽의 수정이 캐시에 번지지 않게 한다.
+ */
+@Component
+public class MemberSearchCache {
+
+    private static final String[] TABLES = {"member", "team"};
+
+    private final TableVersions tableVersions;
+    private final TtlLruCache<Key, Object> cache;
+
+    public MemberSearchCache(TableVersions tableVersions,
+                             @Value("${member.search.result-cache.max-size:500}") int maxSize,
+                             @Value("${member.search.result-cache.ttl:10s}") Duration ttl) {
+        this.tableVersions = tableVersions;
+        this.cache = new TtlLruCache<>(maxSize, ttl);
+    }
+
+    public List<MemberTeamDto> list(MemberSearchKey condition, Supplier<List<MemberTeamDto>> loader) {
+        return load(new Key("search", condition, 0, 0), loader, MemberSearchCache::copy);
+    }
+
+    public Page<MemberTeamDto> page(String method, MemberSearchKey condition, Pageable pageable,
+                                    Supplier<Page<MemberTeamDto>> loader) {
+        if (pageable.isUnpaged()) {
+            return loader.get();
+        }
+        return load(new Key(method, condition, pageable.getOffset(), pageable.getPageSize()), loader,
+                page -> new PageImpl<>(copy(page.getContent()), page.getPageable(), page.getTotalElements()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T load(Key key, Supplier<T> loader, UnaryOperator<T> copy) {
+        if (!ReadCachePolicy.isCacheable()) {
+            return loader.get();
+        }
+        return copy.apply((T) cache.getOrLoad(key, tableVersions.stamp(TABLES), () -> copy.apply(loader.get())));
+    }
+
+    private static List<MemberTeamDto> copy(List<MemberTeamDto> rows) {
+        return rows.stream()
+                .map(row -> new MemberTeamDto(row.getMemberId(), row.getUsername(), row.getAge(),
+                        row.getTeamId(), row.getTeamName()))
+                .toList();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    //페이지 정렬(Sort)은 검색 쿼리에 반영되지 않으므로 키에 넣지 않는다
+    private record Key(String method, MemberSearchKey condition, long offset, int size) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.dto.MemberSearchCondition;
+
+/**
+ * 캐시 키로 쓰기 위해 정규화한 검색조건.
+ * 검색 로직과 동일하게 빈 문자열은 조건 없음(null)으로 본다.
+ */
+public record MemberSearchKey(String username, String usernamePrefix, String usernameContains,
+                              String teamName, Integer ageGoe, Integer ageLoe) {
+
+    public static MemberSearchKey of(MemberSearchCondition condition) {
+        return new MemberSearchKey(
+                emptyToNull(condition.getUsername()),
+                emptyToNull(condition.getUsernamePrefix()),
+                emptyToNull(condition.getUsernameContains()),
+                emptyToNull(condition.getTeamName()),
+                condition.getAgeGoe(),
+                condition.getAgeLoe());
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
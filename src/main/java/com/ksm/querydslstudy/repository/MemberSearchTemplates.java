@@ -0,0 +1,173 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 검색조건 null/non-null 조합별로 미리 만들어둔 JPQL 템플릿.
+ * 조합 수가 정해져 있으므로 한번만 만들어 두면, 요청마다 querydsl 표현식 트리 생성과 JPQL 직렬화 없이
+ * 파라미터 바인딩만 하면 된다. 같은 JPQL 문자열은 Hibernate 쿼리 플랜 캐시에서 재사용되어 다시 파싱하지 않는다.
+ */
+@Component
+public class MemberSearchTemplates {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+    private static final int USERNAME_PREFIX = 1 << 4;
+    //부분 검색은 검색어 길이에 따라 trigram 색인 / like 로 나뉜다 (둘 중 하나만 켜진다)
+    private static final int USERNAME_CONTAINS = 1 << 5;
+    private static final int USERNAME_CONTAINS_SHORT = 1 << 6;
+    //팀명 조건은 팀 id 를 알면 FK 조건(TEAM_ID), 모르면 조인 필터(TEAM_NAME) 로 처리한다 (둘 중 하나만 켜진다)
+    private static final int TEAM_ID = 1 << 7;
+    private static final int COMBINATIONS = 1 << 8;
+
+    private static final String CONTENT_SELECT =
+            "select new com.ksm.querydslstudy.dto.MemberTeamDto(m.id, m.username, m.age, t.id, t.name) ";
+    //팀 id 로 거른 경우 팀명은 검색조건 그대로이므로 team 을 조인하지 않고 파라미터로 채운다
+    private static final String CONTENT_SELECT_BY_TEAM_ID =
+            "select new com.ksm.querydslstudy.dto.MemberTeamDto(m.id, m.username, m.age, m.team.id, cast(:teamName as String)) ";
+    private static final String COUNT_SELECT =
+            "select count(m) ";
+
+    private final EntityManagerFactory emf;
+    private final SearchQueryHints hints;
+    private final UsernameGramFrequencies gramFrequencies;
+    private final String[] contentJpql = new String[COMBINATIONS];
+    private final String[] countJpql = new String[COMBINATIONS];
+
+    public MemberSearchTemplates(EntityManagerFactory emf, SearchQueryHints hints, UsernameGramFrequencies gramFrequencies) {
+        this.emf = emf;
+        this.hints = hints;
+        this.gramFrequencies = gramFrequencies;
+        for (int mask = 0; mask < COMBINATIONS; mask++) {
+            String fromWhere = from(mask) + where(mask);
+            contentJpql[mask] = ((mask & TEAM_ID) != 0 ? CONTENT_SELECT_BY_TEAM_ID : CONTENT_SELECT) + fromWhere;
+            countJpql[mask] = COUNT_SELECT + fromWhere;
+        }
+    }
+
+    //기동 시 모든 조합을 한번씩 파싱해서 플랜 캐시를 채우고, 템플릿 오류도 미리 드러나게 한다
+    @PostConstruct
+    public void warmUp() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (int mask = 0; mask < COMBINATIONS; mask++) {
+                if (exclusive(mask, USERNAME_CONTAINS, USERNAME_CONTAINS_SHORT) || exclusive(mask, TEAM_NAME, TEAM_ID)) {
+                    continue;
+                }
+                em.createQuery(contentJpql[mask], MemberTeamDto.class);
+                em.createQuery(countJpql[mask], Long.class);
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * @param teamIds TeamIdResolver 가 찾은 팀명의 팀 id 목록, null 이면 팀명은 조인 필터로 건다 (빈 목록은 호출 전에 걸러야 한다)
+     */
+    public TypedQuery<MemberTeamDto> content(EntityManager em, MemberSearchKey key, List<Long> teamIds) {
+        int mask = mask(key, teamIds);
+        TypedQuery<MemberTeamDto> query = bind(em.createQuery(contentJpql[mask], MemberTeamDto.class), key, teamIds);
+        if ((mask & TEAM_ID) != 0) {
+            query.setParameter("teamName", key.teamName());
+        }
+        return hints.apply(query);
+    }
+
+    public TypedQuery<Long> count(EntityManager em, MemberSearchKey key, List<Long> teamIds) {
+        return hints.apply(bind(em.createQuery(countJpql[mask(key, teamIds)], Long.class), key, teamIds));
+    }
+
+    public TypedQuery<MemberTeamDto> content(EntityManager em, MemberSearchKey key) {
+        return content(em, key, null);
+    }
+
+    public TypedQuery<Long> count(EntityManager em, MemberSearchKey key) {
+        return count(em, key, null);
+    }
+
+    private static boolean exclusive(int mask, int a, int b) {
+        return (mask & a) != 0 && (mask & b) != 0;
+    }
+
+    private static int mask(MemberSearchKey key, List<Long> teamIds) {
+        int mask = 0;
+        if (key.username() != null) mask |= USERNAME;
+        if (key.usernamePrefix() != null) mask |= USERNAME_PREFIX;
+        if (key.usernameContains() != null) {
+            mask |= UsernameTrigrams.indexable(key.usernameContains()) ? USERNAME_CONTAINS : USERNAME_CONTAINS_SHORT;
+        }
+        if (key.teamName() != null) mask |= teamIds != null ? TEAM_ID : TEAM_NAME;
+        if (key.ageGoe() != null) mask |= AGE_GOE;
+        if (key.ageLoe() != null) mask |= AGE_LOE;
+        return mask;
+    }
+
+    //팀명 조건이 있으면 어차피 팀 없는 회원은 걸러지므로 inner join 으로 바꿔서,
+    //DB 가 idx_team_name 으로 팀을 먼저 찾고 idx_member_team_age 로 회원을 찾을 수 있게 한다 (left join 은 순서가 고정된다)
+    //팀 id 로 거를 때는 m.team.id 가 member.team_id 컬럼 그대로라 조인이 필요 없다
+    private static String from(int mask) {
+        if ((mask & TEAM_ID) != 0) {
+            return "from Member m";
+        }
+        return (mask & TEAM_NAME) != 0
+                ? "from Member m join m.team t"
+                : "from Member m left join m.team t";
+    }
+
+    private static String where(int mask) {
+        StringBuilder where = new StringBuilder();
+        if ((mask & USERNAME) != 0) and(where, "m.username = :username");
+        //like 'x%' 대신 범위 조건으로 idx_member_username 범위 스캔
+        if ((mask & USERNAME_PREFIX) != 0) and(where, "m.username >= :usernamePrefix and m.username < :usernamePrefixEnd");
+        //검색어의 조각을 모두 가진 회원만 후보로 고르고, 조각 순서/위치는 like 로 확인
+        if ((mask & USERNAME_CONTAINS) != 0) and(where, "m.id in (select g.memberId from MemberUsernameTrigram g"
+                + " where g.trigram in :usernameGrams group by g.memberId having count(g.trigram) = :usernameGramCount)"
+                + " and m.username like :usernameContains escape '!'");
+        if ((mask & USERNAME_CONTAINS_SHORT) != 0) and(where, "m.username like :usernameContains escape '!'");
+        if ((mask & TEAM_NAME) != 0) and(where, "t.name = :teamName");
+        if ((mask & TEAM_ID) != 0) and(where, "m.team.id in :teamIds");
+        if ((mask & AGE_GOE) != 0) and(where, "m.age >= :ageGoe");
+        if ((mask & AGE_LOE) != 0) and(where, "m.age <= :ageLoe");
+        return where.toString();
+    }
+
+    private static void and(StringBuilder where, String predicate) {
+        where.append(where.length() == 0 ? " where " : " and ").append(predicate);
+    }
+
+    private <T> TypedQuery<T> bind(TypedQuery<T> query, MemberSearchKey key, List<Long> teamIds) {
+        if (key.username() != null) query.setParameter("username", key.username());
+        if (key.usernamePrefix() != null) {
+            query.setParameter("usernamePrefix", key.usernamePrefix());
+            query.setParameter("usernamePrefixEnd", UsernameTrigrams.prefixEnd(key.usernamePrefix()));
+        }
+        if (key.usernameContains() != null) {
+            query.setParameter("usernameContains", UsernameTrigrams.likeContains(key.usernameContains()));
+            if (UsernameTrigrams.indexable(key.usernameContains())) {
+                List<String> grams = gramFrequencies.searchGrams(key.usernameContains());
+                query.setParameter("usernameGrams", grams);
+                query.setParameter("usernameGramCount", (long) grams.size());
+            }
+        }
+        if (key.teamName() != null) {
+            if (teamIds != null) {
+                query.setParameter("teamIds", teamIds);
+            } else {
+                query.setParameter("teamName", key.teamName());
+            }
+        }
+        if (key.ageGoe() != null) query.setParameter("ageGoe", key.ageGoe());
+        if (key.ageLoe() != null) query.setParameter("ageLoe", key.ageLoe());
+        return query;
+    }
+}
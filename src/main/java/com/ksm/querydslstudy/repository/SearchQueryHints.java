@@ -0,0 +1,35 @@
+package com.ksm.querydslstudy.repository;
+
+import com.querydsl.jpa.impl.AbstractJPAQuery;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 검색 쿼리 공통 힌트, JDBC fetch size 를 지정한다.
+ * 읽기 전용 처리(스냅샷 없음, 자동 flush 끔)는 @Transactional(readOnly = true) 에서 HibernateJpaDialect 가
+ * 세션 단위로 해주므로 쿼리마다 따로 걸지 않는다.
+ */
+@Component
+public class SearchQueryHints {
+
+    private final int fetchSize;
+
+    public SearchQueryHints(@Value("${member.search.fetch-size:100}") int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public <T> TypedQuery<T> apply(TypedQuery<T> query) {
+        return query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+    }
+
+    public <T, Q extends AbstractJPAQuery<T, Q>> Q apply(Q query) {
+        return apply(query, fetchSize);
+    }
+
+    public <T, Q extends AbstractJPAQuery<T, Q>> Q apply(Q query, int fetchSize) {
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        return query;
+    }
+}
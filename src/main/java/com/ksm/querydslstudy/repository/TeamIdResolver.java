@@ -0,0 +1,50 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.cache.CacheStats;
+import com.ksm.querydslstudy.cache.ReadCachePolicy;
+import com.ksm.querydslstudy.cache.TableVersions;
+import com.ksm.querydslstudy.cache.TtlLruCache;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 팀명 → 팀 id 목록 캐시. team 테이블에 쓰기(추가/이름 변경/삭제)가 있으면 버린다.
+ * 팀명 조건을 t.name = ? 조인 필터 대신 member.team_id in (?) 로 바꿔서 idx_member_team_age 로 바로 찾게 한다.
+ */
+@Component
+public class TeamIdResolver {
+
+    private final EntityManager em;
+    private final TableVersions tableVersions;
+    private final TtlLruCache<String, List<Long>> cache;
+
+    public TeamIdResolver(EntityManager em,
+                          TableVersions tableVersions,
+                          @Value("${member.search.team-id-cache.max-size:10000}") int maxSize,
+                          @Value("${member.search.team-id-cache.ttl:10m}") Duration ttl) {
+        this.em = em;
+        this.tableVersions = tableVersions;
+        this.cache = new TtlLruCache<>(maxSize, ttl);
+    }
+
+    /**
+     * @return 팀명이 없거나 쓰기 트랜잭션 안이라 캐시를 쓸 수 없으면 null (조인 필터로 처리), 해당 팀이 없으면 빈 목록
+     */
+    public List<Long> resolve(String teamName) {
+        if (teamName == null || !ReadCachePolicy.isCacheable()) {
+            return null;
+        }
+        return cache.getOrLoad(teamName, tableVersions.stamp("team"), () -> em
+                .createQuery("select t.id from Team t where t.name = :name order by t.id", Long.class)
+                .setParameter("name", teamName)
+                .getResultList());
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.cache.BloomFilter;
+import com.ksm.querydslstudy.cache.ReadCachePolicy;
+import com.ksm.querydslstudy.cache.TableVersions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 존재하지 않는 팀명으로 들어온 검색을 DB 까지 보내지 않기 위한 팀명 Bloom filter.
+ * team 테이블 버전이 바뀌면 다음 조회 때 다시 만든다. 잘못된 양성은 DB 에서 빈 결과로 끝나고, 음성은 항상 정확하다.
+ * 버전은 Hibernate 쓰기(TableWriteInspector)와 JdbcTemplate 등 다른 JDBC 쓰기(JdbcWriteListener) 모두에서 올라간다.
+ * 이 애플리케이션을 거치지 않고 team 을 쓰는 곳이 있으면 음성이 틀릴 수 있으므로 enabled 를 끈다.
+ * 쓰기 트랜잭션 안에서는 아직 커밋되지 않은 팀이 필터에 없을 수 있으므로 쓰지 않는다 (ReadCachePolicy).
+ */
+@Slf4j
+@Component
+public class TeamNameFilter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TableVersions tableVersions;
+    private final boolean enabled;
+    private final double fpp;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    private volatile Snapshot snapshot;
+
+    public TeamNameFilter(JdbcTemplate jdbcTemplate,
+                          TableVersions tableVersions,
+                          @Value("${member.search.team-name-filter.enabled:true}") boolean enabled,
+                          @Value("${member.search.team-name-filter.fpp:0.01}") double fpp) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableVersions = tableVersions;
+        this.enabled = enabled;
+        this.fpp = fpp;
+    }
+
+    //false 면 해당 팀명을 가진 팀이 없으므로 팀명 조건이 걸린 검색은 결과가 비어 있다
+    public boolean mightMatch(MemberSearchKey key) {
+        if (!enabled || key.teamName() == null || !ReadCachePolicy.isCacheable()) {
+            return true;
+        }
+        lookups.increment();
+        if (current().filter().mightContain(key.teamName())) {
+            return true;
+        }
+        rejections.increment();
+        return false;
+    }
+
+    public Stats stats() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return new Stats(0, 0, 0, 0, 0, lookups.sum(), rejections.sum());
+        }
+        BloomFilter filter = current.filter();
+        return new Stats(filter.entries(), filter.bits(), filter.memoryBytes(), filter.hashFunctions(),
+                filter.falsePositiveRate(), lookups.sum(), rejections.sum());
+    }
+
+    private Snapshot current() {
+        long stamp = tableVersions.stamp("team");
+        Snapshot current = snapshot;
+        if (current != null && current.stamp() == stamp) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && current.stamp() == stamp) {
+                return current;
+            }
+            //버전을 먼저 읽고 적재하므로, 적재 중에 바뀌면 다음 조회에서 다시 만든다
+            List<String> names = jdbcTemplate.queryForList("select distinct name from team where name is not null", String.class);
+            current = new Snapshot(BloomFilter.of(names, names.size(), fpp), stamp);
+            snapshot = current;
+            log.debug("team name filter rebuilt: {} names", names.size());
+            return current;
+        }
+    }
+
+    private record Snapshot(BloomFilter filter, long stamp) {
+    }
+
+    /**
+     * @param falsePositiveRate 현재 비트 채움 비율로 계산한 잘못된 양성 확률
+     * @param rejections        DB 조회 없이 빈 결과로 끝난 검색 수
+     */
+    public record Stats(int entries, int bits, long memoryBytes, int hashFunctions, double falsePositiveRate,
+                        long lookups, long rejections) {
+    }
+}
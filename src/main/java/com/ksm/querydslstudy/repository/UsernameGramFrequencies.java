@@ -0,0 +1,73 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.cache.CacheStats;
+import com.ksm.querydslstudy.cache.TtlLruCache;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 회원명 3글자 조각 → 그 조각을 가진 회원 수 캐시. 부분 검색이 흔한 조각 대신 드문 조각으로 후보를 고르게 한다.
+ * 빈도는 조각을 고르는 데만 쓰고 결과는 like 로 확인하므로, 쓰기마다 버리지 않고 TTL 로만 갱신한다.
+ */
+@Component
+public class UsernameGramFrequencies {
+
+    //테이블 버전과 무관하게 TTL 로만 만료시킨다
+    private static final long STAMP = 0;
+
+    private final EntityManager em;
+    private final TtlLruCache<String, Long> cache;
+
+    public UsernameGramFrequencies(EntityManager em,
+                                   @Value("${member.search.gram-frequency-cache.max-size:10000}") int maxSize,
+                                   @Value("${member.search.gram-frequency-cache.ttl:10m}") Duration ttl) {
+        this.em = em;
+        this.cache = new TtlLruCache<>(maxSize, ttl);
+    }
+
+    //조각이 하나뿐이면 고를 것이 없으므로 빈도를 읽지 않는다
+    public List<String> searchGrams(String term) {
+        Set<String> grams = UsernameTrigrams.of(term);
+        if (grams.size() <= 1) {
+            return List.copyOf(grams);
+        }
+        Map<String, Long> counts = counts(grams);
+        return UsernameTrigrams.searchGrams(term, counts::get);
+    }
+
+    //캐시에 없는 조각만 한 쿼리로 센다, 색인에 없는 조각은 0
+    private Map<String, Long> counts(Set<String> grams) {
+        Map<String, Long> counts = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String gram : grams) {
+            Long count = cache.get(gram, STAMP);
+            if (count == null) {
+                missing.add(gram);
+                counts.put(gram, 0L);
+            } else {
+                counts.put(gram, count);
+            }
+        }
+        if (!missing.isEmpty()) {
+            em.createQuery("select g.trigram, count(g.memberId) from MemberUsernameTrigram g"
+                            + " where g.trigram in :grams group by g.trigram", Object[].class)
+                    .setParameter("grams", missing)
+                    .getResultList()
+                    .forEach(row -> counts.put((String) row[0], (Long) row[1]));
+            missing.forEach(gram -> cache.put(gram, counts.get(gram), STAMP));
+        }
+        return counts;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,85 @@
+package com.ksm.querydslstudy.repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * 회원명 접두/부분 검색에 쓰는 문자열 도구.
+ * 접두 검색은 like 'x%' 대신 [prefix, prefixEnd) 범위로 바꿔서 idx_member_username 을 범위 스캔하게 하고,
+ * 부분 검색은 member_username_trigram 에서 검색어의 3글자 조각을 모두 가진 회원만 후보로 고른 뒤 like 로 확인한다.
+ */
+public final class UsernameTrigrams {
+
+    //3글자보다 짧은 검색어는 조각을 만들 수 없어 like '%x%' 로 처리
+    public static final int GRAM = 3;
+
+    //긴 검색어도 드문 조각 몇 개만으로 후보는 충분히 좁혀지고, 나머지는 like 확인이 걸러낸다
+    private static final int MAX_SEARCH_GRAMS = 8;
+
+    //가장 드문 조각의 몇 배까지 흔한 조각을 같이 쓸지
+    private static final int RAREST_RATIO = 4;
+
+    private static final char LIKE_ESCAPE = '!';
+
+    private UsernameTrigrams() {
+    }
+
+    public static Set<String> of(String username) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (username == null) {
+            return grams;
+        }
+        for (int i = 0; i + GRAM <= username.length(); i++) {
+            grams.add(username.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    public static boolean indexable(String term) {
+        return term.length() >= GRAM;
+    }
+
+    //가장 드문 조각 하나만으로도 후보는 그 조각을 가진 회원 수 이하가 된다
+    //훨씬 흔한 조각(ex. 시드 회원명 member{i} 의 "ber")을 같이 넣으면 후보를 조금 줄이려고 그 조각의 색인을 전부 읽으므로,
+    //가장 드문 조각의 RAREST_RATIO 배 이하인 조각만 드문 순서로 MAX_SEARCH_GRAMS 개까지 쓴다
+    public static List<String> searchGrams(String term, ToLongFunction<String> frequency) {
+        List<String> grams = new ArrayList<>(of(term));
+        grams.sort(Comparator.comparingLong(frequency));
+        long limit = frequency.applyAsLong(grams.get(0)) * RAREST_RATIO;
+        return grams.stream()
+                .filter(gram -> frequency.applyAsLong(gram) <= limit)
+                .limit(MAX_SEARCH_GRAMS)
+                .toList();
+    }
+
+    //prefix 로 시작하는 모든 문자열보다 큰 가장 작은 문자열, 마지막 글자를 하나 올린다
+    public static String prefixEnd(String prefix) {
+        StringBuilder end = new StringBuilder(prefix);
+        for (int i = end.length() - 1; i >= 0; i--) {
+            char c = end.charAt(i);
+            if (c != Character.MAX_VALUE) {
+                end.setCharAt(i, (char) (c + 1));
+                end.setLength(i + 1);
+                return end.toString();
+            }
+        }
+        //전부 Character.MAX_VALUE 인 경우는 상한이 없으므로 비교상 가장 큰 값에 가깝게 둔다
+        return prefix + Character.MAX_VALUE;
+    }
+
+    //querydsl contains() 와 같은 escape 규칙 ('!')
+    public static String likeContains(String term) {
+        StringBuilder pattern = new StringBuilder(term.length() + 2).append('%');
+        for (char c : term.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
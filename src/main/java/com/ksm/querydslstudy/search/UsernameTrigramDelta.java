@@ -0,0 +1,63 @@
+package com.ksm.querydslstudy.search;
+
+import com.ksm.querydslstudy.repository.UsernameTrigrams;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 한 트랜잭션 동안 바뀐 회원 id → 최종 회원명(삭제면 null). 커밋 직전에 조각을 지우고 다시 넣는다.
+ */
+class UsernameTrigramDelta {
+
+    static final String INSERT = "insert into member_username_trigram (trigram, member_id) values (?, ?)";
+    static final String DELETE = "delete from member_username_trigram where member_id = ?";
+
+    private final Map<Long, String> usernames = new LinkedHashMap<>();
+    //이번 트랜잭션에서 새로 insert 된 회원은 지울 조각이 없다
+    private final Set<Long> inserted = new HashSet<>();
+
+    void inserted(Long memberId, String username) {
+        usernames.put(memberId, username);
+        inserted.add(memberId);
+    }
+
+    void changed(Long memberId, String username) {
+        usernames.put(memberId, username);
+    }
+
+    void apply(Connection connection) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(DELETE);
+             PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            boolean deletes = false;
+            boolean inserts = false;
+            for (Map.Entry<Long, String> entry : usernames.entrySet()) {
+                Long memberId = entry.getKey();
+                if (!inserted.contains(memberId)) {
+                    delete.setLong(1, memberId);
+                    delete.addBatch();
+                    deletes = true;
+                }
+                for (String trigram : UsernameTrigrams.of(entry.getValue())) {
+                    insert.setString(1, trigram);
+                    insert.setLong(2, memberId);
+                    insert.addBatch();
+                    inserts = true;
+                }
+            }
+            if (deletes) {
+                delete.executeBatch();
+            }
+            if (inserts) {
+                insert.executeBatch();
+            }
+        }
+        usernames.clear();
+        inserted.clear();
+    }
+}
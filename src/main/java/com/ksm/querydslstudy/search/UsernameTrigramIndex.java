@@ -0,0 +1,69 @@
+package com.ksm.querydslstudy.search;
+
+import com.ksm.querydslstudy.repository.UsernameTrigrams;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * member_username_trigram 재생성.
+ * JDBC 로 넣은 데이터(BenchmarkContext 등) 뒤에는 전체를, 엔티티 이벤트가 없는 벌크 update/delete 는 chunk 마다
+ * 그 id 구간만 다시 만든다 (MemberBulkRepository).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UsernameTrigramIndex {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public long rebuild() {
+        jdbcTemplate.update("delete from member_username_trigram");
+        long rows = index("select member_id, username from member");
+        log.info("member_username_trigram rebuilt: {} rows", rows);
+        return rows;
+    }
+
+    //(afterId, toId] 구간 회원만 다시 색인한다, 지워진 회원의 조각은 지우기만 한다 (호출한 트랜잭션에 참여)
+    @Transactional
+    public long rebuild(long afterId, long toId) {
+        jdbcTemplate.update("delete from member_username_trigram where member_id > ? and member_id <= ?", afterId, toId);
+        long rows = index("select member_id, username from member where member_id > ? and member_id <= ?", afterId, toId);
+        log.info("member_username_trigram rebuilt for member_id ({}, {}]: {} rows", afterId, toId, rows);
+        return rows;
+    }
+
+    private long index(String sql, Object... args) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        long[] rows = {0};
+        jdbcTemplate.query(sql, rs -> {
+            long memberId = rs.getLong(1);
+            for (String trigram : UsernameTrigrams.of(rs.getString(2))) {
+                batch.add(new Object[]{trigram, memberId});
+                if (batch.size() == BATCH_SIZE) {
+                    rows[0] += flush(batch);
+                }
+            }
+        }, args);
+        rows[0] += flush(batch);
+        return rows[0];
+    }
+
+    private int flush(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(UsernameTrigramDelta.INSERT, batch);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+}
@@ -0,0 +1,31 @@
+package com.ksm.querydslstudy.search;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * UsernameTrigramListener 를 insert/update/delete/flush 이벤트에 등록한다. HibernateConfig 에서 integrator_provider 로 넘긴다.
+ */
+public class UsernameTrigramIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        UsernameTrigramListener listener = new UsernameTrigramListener();
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        //기본 flush 리스너 뒤에 붙어서 flush 가 끝난 다음 색인을 쓴다
+        registry.appendListeners(EventType.FLUSH, listener);
+        registry.appendListeners(EventType.AUTO_FLUSH, listener);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.ksm.querydslstudy.search;
+
+import com.ksm.querydslstudy.entity.Member;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 회원 insert/delete 와 회원명 변경을 member_username_trigram 에 반영한다.
+ * 세션마다 변경을 모았다가 flush 가 끝난 뒤(JDBC 배치까지 실행된 뒤) 같은 트랜잭션으로 쓴다.
+ * (post insert 시점에는 member insert 가 아직 JDBC 배치에 남아 있을 수 있다)
+ * TeamStatsListener 와 달리 커밋까지 미루지 않으므로 같은 트랜잭션 안의 부분 검색도 방금 쓴 회원을 찾는다.
+ */
+public class UsernameTrigramListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        FlushEventListener, AutoFlushEventListener {
+
+    private final Map<EventSource, UsernameTrigramDelta> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            delta(event.getSession()).inserted((Long) event.getId(), username(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        String username = username(event.getPersister(), event.getState());
+        Object[] oldState = event.getOldState();
+        if (oldState != null && Objects.equals(username(event.getPersister(), oldState), username)) {
+            return;
+        }
+        delta(event.getSession()).changed((Long) event.getId(), username);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            delta(event.getSession()).changed((Long) event.getId(), null);
+        }
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        applyPending(event.getSession());
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        applyPending(event.getSession());
+    }
+
+    private void applyPending(EventSource session) {
+        UsernameTrigramDelta delta = pending.get(session);
+        if (delta != null) {
+            session.doWork(delta::apply);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    //flush 밖에서 생긴 변경이 남아 있을 경우를 위해 커밋 직전에도 한번 더 반영하고, 종료 후 정리한다
+    private UsernameTrigramDelta delta(EventSource session) {
+        return pending.computeIfAbsent(session, s -> {
+            s.getActionQueue().registerProcess(
+                    (BeforeTransactionCompletionProcess) beforeSession -> {
+                        UsernameTrigramDelta delta = pending.remove(s);
+                        if (delta != null) {
+                            beforeSession.doWork(delta::apply);
+                        }
+                    });
+            s.getActionQueue().registerProcess(
+                    (AfterTransactionCompletionProcess) (success, afterSession) -> pending.remove(s));
+            return new UsernameTrigramDelta();
+        });
+    }
+
+    private String username(EntityPersister persister, Object[] state) {
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals("username")) {
+                return (String) state[i];
+            }
+        }
+        throw new IllegalStateException("no property username on " + persister.getEntityName());
+    }
+}
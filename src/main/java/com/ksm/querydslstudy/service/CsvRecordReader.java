@@ -0,0 +1,59 @@
+package com.ksm.querydslstudy.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV 를 레코드(행) 단위로 읽는다 (RFC 4180).
+ * 큰따옴표로 감싼 값 안의 쉼표, 줄바꿈, "" 를 처리하므로 MemberExportService 가 쓴 CSV 를 그대로 읽을 수 있다.
+ */
+class CsvRecordReader {
+
+    private final Reader reader;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    //다음 레코드의 값 목록, 입력이 끝나면 null
+    //따옴표가 닫히지 않은 채 끝나면 남은 내용을 마지막 값으로 돌려준다 (컬럼 수 검사에서 걸러진다)
+    List<String> next() throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    values.add(value.toString());
+                    return values;
+                }
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                }
+                value.append((char) c);
+            } else if (c < 0 || c == '\n') {
+                values.add(value.toString());
+                return values;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '"' && value.isEmpty()) {
+                quoted = true;
+            } else if (c != '\r') {
+                value.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
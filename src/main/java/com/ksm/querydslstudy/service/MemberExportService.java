@@ -0,0 +1,111 @@
+package com.ksm.querydslstudy.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ksm.querydslstudy.dto.MemberSearchCondition;
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import com.ksm.querydslstudy.repository.MemberRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 검색 결과를 읽는 즉시 Writer 로 흘려보내는 export.
+ * 결과 건수와 상관없이 메모리에는 fetch size 만큼의 행만 올라간다.
+ */
+@Service
+public class MemberExportService {
+
+    private static final String CSV_HEADER = "memberId,username,age,teamId,teamName";
+
+    private final MemberRepository memberRepository;
+    private final EntityManager em;
+    private final ObjectWriter rowWriter;
+    private final int fetchSize;
+    private final int clearInterval;
+
+    public MemberExportService(MemberRepository memberRepository,
+                               EntityManager em,
+                               ObjectMapper objectMapper,
+                               @Value("${member.export.fetch-size:1000}") int fetchSize,
+                               @Value("${member.export.clear-interval:10000}") int clearInterval) {
+        this.memberRepository = memberRepository;
+        this.em = em;
+        //행마다 flush 하지 않고 servlet 버퍼가 찰 때 내보낸다
+        this.rowWriter = objectMapper.writerFor(MemberTeamDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+        this.clearInterval = clearInterval;
+    }
+
+    @Transactional(readOnly = true)
+    public long export(MemberSearchCondition condition, ExportFormat format, Writer writer) throws IOException {
+        try (Stream<MemberTeamDto> rows = memberRepository.searchStream(condition, fetchSize)) {
+            return format == ExportFormat.CSV ? writeCsv(rows.iterator(), writer) : writeNdjson(rows.iterator(), writer);
+        }
+    }
+
+    private long writeNdjson(Iterator<MemberTeamDto> rows, Writer writer) throws IOException {
+        JsonGenerator generator = rowWriter.createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        long count = 0;
+        while (rows.hasNext()) {
+            rowWriter.writeValue(generator, rows.next());
+            generator.writeRaw('\n');
+            clearPeriodically(++count);
+        }
+        generator.flush();
+        return count;
+    }
+
+    private long writeCsv(Iterator<MemberTeamDto> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long count = 0;
+        while (rows.hasNext()) {
+            MemberTeamDto row = rows.next();
+            writer.write(String.valueOf(row.getMemberId()));
+            writer.write(',');
+            writeCsvValue(writer, row.getUsername());
+            writer.write(',');
+            writer.write(String.valueOf(row.getAge()));
+            writer.write(',');
+            writer.write(row.getTeamId() == null ? "" : String.valueOf(row.getTeamId()));
+            writer.write(',');
+            writeCsvValue(writer, row.getTeamName());
+            writer.write('\n');
+            clearPeriodically(++count);
+        }
+        writer.flush();
+        return count;
+    }
+
+    private void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    //DTO 조회라 관리 엔티티는 거의 없지만, 긴 export 동안 영속성 컨텍스트가 커지지 않도록 주기적으로 비운다
+    private void clearPeriodically(long count) {
+        if (count % clearInterval == 0) {
+            em.clear();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.ksm.querydslstudy.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ksm.querydslstudy.dto.BulkImportResult;
+import com.ksm.querydslstudy.dto.InvalidImportException;
+import com.ksm.querydslstudy.dto.MemberImportRow;
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.entity.Team;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 대량 회원 등록.
+ * 요청 본문을 한 행씩 읽어 chunk 단위로 모았다가 chunk 마다 별도 트랜잭션으로 커밋한다.
+ * 형식이 잘못된 행은 그 행만 에러로 기록하고 건너뛰며, 실패한 chunk 는 롤백하고 에러로 기록한 뒤 다음 chunk 를 계속 처리한다.
+ */
+@Slf4j
+@Service
+public class MemberImportService {
+
+    private final EntityManager em;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+
+    public MemberImportService(EntityManager em,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${member.import.chunk-size:1000}") int chunkSize) {
+        this.em = em;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    //[{"username":"member1","age":10,"teamName":"teamA"}, ...]
+    //행마다 트리로 먼저 읽고 변환하므로 값이 잘못된 행(나이가 숫자가 아님 등)이나 객체가 아닌 원소는 그 행만 거절된다
+    public BulkImportResult importJson(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (firstToken(parser) != JsonToken.START_ARRAY) {
+                throw new InvalidImportException("request body must be a JSON array");
+            }
+            Importer importer = new Importer();
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        importer.reject("unexpected end of input, JSON array is not closed");
+                        break;
+                    }
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        importer.reject("row must be a JSON object but was " + token);
+                        continue;
+                    }
+                    JsonNode node = objectMapper.readTree(parser);
+                    try {
+                        importer.add(objectMapper.treeToValue(node, MemberImportRow.class));
+                    } catch (JsonProcessingException e) {
+                        importer.reject("invalid row: " + e.getOriginalMessage());
+                    }
+                }
+            } catch (JsonParseException e) {
+                //문법이 깨지면 그 뒤로는 행 경계를 알 수 없으므로 거기까지만 등록한다
+                importer.reject("malformed JSON: " + e.getOriginalMessage());
+            }
+            return importer.finish();
+        }
+    }
+
+    private static JsonToken firstToken(JsonParser parser) throws IOException {
+        try {
+            return parser.nextToken();
+        } catch (JsonParseException e) {
+            throw new InvalidImportException("request body must be a JSON array: " + e.getOriginalMessage());
+        }
+    }
+
+    //헤더 + 행, 헤더의 컬럼명(username, age, teamName)으로 값을 찾으므로 순서는 상관없고 다른 컬럼은 무시한다
+    //MemberExportService 의 CSV(memberId,username,age,teamId,teamName)도 그대로 읽는다
+    public BulkImportResult importCsv(InputStream body) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+        List<String> header = reader.next();
+        if (header == null) {
+            return new Importer().finish();
+        }
+        CsvColumns columns = CsvColumns.of(header);
+        Importer importer = new Importer();
+        List<String> values;
+        while ((values = reader.next()) != null) {
+            if (values.size() == 1 && values.get(0).isBlank()) {
+                continue;
+            }
+            if (values.size() != header.size()) {
+                importer.reject("expected " + header.size() + " columns but was " + values.size());
+                continue;
+            }
+            String age = values.get(columns.age()).trim();
+            Integer parsedAge;
+            try {
+                parsedAge = age.isEmpty() ? null : Integer.valueOf(age);
+            } catch (NumberFormatException e) {
+                importer.reject("invalid age: " + age);
+                continue;
+            }
+            String teamName = columns.teamName() < 0 ? "" : values.get(columns.teamName()).trim();
+            importer.add(new MemberImportRow(values.get(columns.username()).trim(), parsedAge,
+                    teamName.isEmpty() ? null : teamName));
+        }
+        return importer.finish();
+    }
+
+    private Map<String, Long> loadTeamIds() {
+        Map<String, Long> teamIds = new HashMap<>();
+        em.createQuery("select t.name, t.id from Team t", Object[].class)
+                .getResultList()
+                .forEach(row -> teamIds.putIfAbsent((String) row[0], (Long) row[1]));
+        return teamIds;
+    }
+
+    //헤더에서 찾은 컬럼 위치, teamName 은 없으면 -1
+    private record CsvColumns(int username, int age, int teamName) {
+
+        static CsvColumns of(List<String> header) {
+            List<String> names = header.stream()
+                    .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+            int username = names.indexOf("username");
+            int age = names.indexOf("age");
+            if (username < 0 || age < 0) {
+                throw new InvalidImportException("CSV header must have username and age columns: " + header);
+            }
+            return new CsvColumns(username, age, names.indexOf("teamname"));
+        }
+    }
+
+    private class Importer {
+
+        private final BulkImportResult result = new BulkImportResult();
+        //팀명 -> id, 시작할 때 한번 읽고 새로 만든 팀은 여기에 추가 (행마다 팀을 조회하지 않는다)
+        private final Map<String, Long> teamIds = tx.execute(status -> loadTeamIds());
+        private final List<MemberImportRow> chunk = new ArrayList<>(chunkSize);
+        private long row;
+        private long chunkStartRow;
+        private long chunkEndRow;
+
+        void add(MemberImportRow importRow) {
+            if (importRow.getUsername() == null || importRow.getUsername().isBlank()) {
+                reject("username is required");
+                return;
+            }
+            //age 는 int 컬럼이라 비어 있으면 0 으로 들어가므로 거절한다
+            if (importRow.getAge() == null) {
+                reject("age is required");
+                return;
+            }
+            if (chunk.isEmpty()) {
+                chunkStartRow = row;
+            }
+            chunk.add(importRow);
+            chunkEndRow = ++row;
+            if (chunk.size() == chunkSize) {
+                writeChunk();
+            }
+        }
+
+        void reject(String message) {
+            result.rowRejected(row++, message);
+        }
+
+        BulkImportResult finish() {
+            if (!chunk.isEmpty()) {
+                writeChunk();
+            }
+            log.info("member import finished: imported={}, failed={}, chunks={}",
+                    result.getImported(), result.getFailed(), result.getChunks());
+            return result;
+        }
+
+        private void writeChunk() {
+            try {
+                createMissingTeams();
+                tx.executeWithoutResult(status -> persistChunk());
+                result.chunkCommitted(chunk.size());
+            } catch (RuntimeException e) {
+                //사이에 거절된 행이 있으면 구간이 chunk 크기보다 길다
+                log.warn("member import chunk [{}, {}) failed", chunkStartRow, chunkEndRow, e);
+                result.chunkFailed(chunkStartRow, chunkEndRow, chunk.size(), e.getMessage());
+            } finally {
+                chunk.clear();
+            }
+        }
+
+        //새 팀은 chunk 와 별도 트랜잭션으로 만들어서, chunk 가 롤백돼도 teamIds 가 틀어지지 않게 한다
+        private void createMissingTeams() {
+            Set<String> missing = new LinkedHashSet<>();
+            for (MemberImportRow importRow : chunk) {
+                String teamName = importRow.getTeamName();
+                if (teamName != null && !teamName.isEmpty() && !teamIds.containsKey(teamName)) {
+                    missing.add(teamName);
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+            Map<String, Long> created = tx.execute(status -> {
+                Map<String, Long> ids = new HashMap<>();
+                for (String teamName : missing) {
+                    Team team = new Team(teamName);
+                    em.persist(team);
+                    ids.put(teamName, team.getId());
+                }
+                return ids;
+            });
+            teamIds.putAll(created);
+        }
+
+        private void persistChunk() {
+            for (MemberImportRow importRow : chunk) {
+                Member member = new Member(importRow.getUsername(), importRow.getAge());
+                Long teamId = importRow.getTeamName() == null ? null : teamIds.get(importRow.getTeamName());
+                //양방향 컬렉션을 건드리면 팀 프록시가 초기화되므로 FK 만 지정한다
+                if (teamId != null) {
+                    member.setTeam(em.getReference(Team.class, teamId));
+                }
+                em.persist(member);
+            }
+            em.flush();
+            em.clear();
+        }
+    }
+}
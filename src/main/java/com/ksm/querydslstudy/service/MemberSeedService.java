@@ -0,0 +1,121 @@
+package com.ksm.querydslstudy.service;
+
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.entity.Team;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 부하테스트/스테이징용 대량 데이터 적재.
+ * chunk 단위로 트랜잭션을 나누고, flush-size 마다 flush/clear 해서 영속성 컨텍스트가 커지지 않게 한다.
+ * insert 는 hibernate.jdbc.batch_size 로 묶이고, id 는 pooled-lo 시퀀스로 allocationSize 마다 한번만 조회한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MemberSeedService {
+
+    private final EntityManager em;
+    private final PlatformTransactionManager transactionManager;
+
+    public SeedReport seed(int teamCount, long memberCount, int chunkSize, int flushSize, int partitions) {
+        //설정값이 그대로 들어오므로 0 이면 chunk 가 진행되지 않거나(무한 루프) flush 주기 계산이 0 으로 나누게 된다
+        if (teamCount <= 0) {
+            throw new IllegalArgumentException("teamCount must be positive: " + teamCount);
+        }
+        if (memberCount < 0) {
+            throw new IllegalArgumentException("memberCount must not be negative: " + memberCount);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        if (flushSize <= 0) {
+            throw new IllegalArgumentException("flushSize must be positive: " + flushSize);
+        }
+        long start = System.nanoTime();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        List<Long> teamIds = tx.execute(status -> persistTeams(teamCount, flushSize));
+
+        //파티션마다 연속된 회원 번호 구간을 맡아 각자의 트랜잭션(=커넥션)으로 적재
+        int threads = Math.max(1, partitions);
+        long perPartition = (memberCount + threads - 1) / threads;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < threads; p++) {
+                long from = p * perPartition;
+                long to = Math.min(memberCount, from + perPartition);
+                futures.add(executor.submit(() -> seedMembers(tx, teamIds, from, to, chunkSize, flushSize)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("member seeding failed", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        SeedReport report = new SeedReport(teamCount, memberCount, Duration.ofNanos(System.nanoTime() - start));
+        log.info("seed finished: {}", report);
+        return report;
+    }
+
+    private List<Long> persistTeams(int teamCount, int flushSize) {
+        List<Team> teams = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            teams.add(team);
+            if ((i + 1) % flushSize == 0) {
+                em.flush();
+            }
+        }
+        em.flush();
+        em.clear();
+        return teams.stream().map(Team::getId).toList();
+    }
+
+    private void seedMembers(TransactionTemplate tx, List<Long> teamIds, long from, long to, int chunkSize, int flushSize) {
+        long chunkStart = System.nanoTime();
+        for (long chunkFrom = from; chunkFrom < to; chunkFrom += chunkSize) {
+            long chunkTo = Math.min(to, chunkFrom + chunkSize);
+            long first = chunkFrom;
+            tx.executeWithoutResult(status -> persistMembers(teamIds, first, chunkTo, flushSize));
+
+            if ((chunkTo - from) % (chunkSize * 10L) == 0 || chunkTo == to) {
+                double seconds = (System.nanoTime() - chunkStart) / 1_000_000_000.0;
+                log.info("seeded members [{}, {}) - {} rows/s", from, chunkTo, String.format("%.0f", (chunkTo - from) / seconds));
+            }
+        }
+    }
+
+    private void persistMembers(List<Long> teamIds, long from, long to, int flushSize) {
+        for (long i = from; i < to; i++) {
+            Member member = new Member("member" + i, (int) (i % 100));
+            //양방향 컬렉션을 건드리면 팀 프록시가 초기화되므로 FK 만 지정한다
+            if (!teamIds.isEmpty()) {
+                member.setTeam(em.getReference(Team.class, teamIds.get((int) (i % teamIds.size()))));
+            }
+            em.persist(member);
+            if ((i - from + 1) % flushSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+}
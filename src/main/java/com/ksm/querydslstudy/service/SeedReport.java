@@ -0,0 +1,17 @@
+package com.ksm.querydslstudy.service;
+
+import java.time.Duration;
+
+public record SeedReport(int teams, long members, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return seconds == 0 ? 0 : (teams + members) / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("teams=%d, members=%d, elapsed=%dms, rows/s=%.0f",
+                teams, members, elapsed.toMillis(), rowsPerSecond());
+    }
+}
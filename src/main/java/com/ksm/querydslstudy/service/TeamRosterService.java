@@ -0,0 +1,99 @@
+package com.ksm.querydslstudy.service;
+
+import com.ksm.querydslstudy.dto.MemberDto;
+import com.ksm.querydslstudy.dto.TeamRosterDto;
+import com.ksm.querydslstudy.entity.Team;
+import com.ksm.querydslstudy.jpaRepository.TeamJpaRepository;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.ksm.querydslstudy.entity.QMember.member;
+
+/**
+ * 팀 + 소속 회원 페이징.
+ * findAllByKsm 처럼 컬렉션을 fetch join 하면 SQL 에서 페이징을 못하고 메모리에서 자르므로,
+ * 팀만 SQL 로 페이징한 뒤 해당 팀들의 회원을 IN 쿼리로 한번에 가져와 붙인다.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TeamRosterService {
+
+    //IN 절 하나에 넣을 최대 팀 수
+    private static final int IN_BATCH_SIZE = 500;
+
+    //팀별로 id 순 번호를 매겨서 cap 안의 회원만 남긴다, 팀 안에서 한번 정렬하면 되므로 회원 수에 비례한다
+    //(Querydsl JPA 는 from 절 서브쿼리와 윈도우 함수를 못 써서 HQL 로 쓴다)
+    private static final String CAPPED_MEMBERS_HQL = """
+            select r.teamId, r.username, r.age
+            from (select m.team.id as teamId, m.username as username, m.age as age,
+                         row_number() over (partition by m.team.id order by m.id) as rn
+                  from Member m
+                  where m.team.id in :teamIds) r
+            where r.rn <= :cap
+            order by r.teamId, r.rn""";
+
+    private final TeamJpaRepository teamJpaRepository;
+    private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+
+    /**
+     * @param maxMembersPerTeam 팀별로 id 순서상 앞에서부터 가져올 최대 회원 수, null 이면 전부
+     */
+    public Page<TeamRosterDto> findRosters(Pageable pageable, Integer maxMembersPerTeam) {
+        Pageable byId = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        Page<Team> teams = teamJpaRepository.findAll(byId);
+
+        Map<Long, TeamRosterDto> rosters = new LinkedHashMap<>();
+        for (Team team : teams) {
+            rosters.put(team.getId(), new TeamRosterDto(team.getId(), team.getName()));
+        }
+
+        List<Long> teamIds = List.copyOf(rosters.keySet());
+        for (int from = 0; from < teamIds.size(); from += IN_BATCH_SIZE) {
+            List<Long> batch = teamIds.subList(from, Math.min(teamIds.size(), from + IN_BATCH_SIZE));
+            List<Object[]> rows = maxMembersPerTeam == null
+                    ? fetchMembers(batch)
+                    : fetchCappedMembers(batch, maxMembersPerTeam);
+            //row = [팀 id, username, age]
+            for (Object[] row : rows) {
+                rosters.get((Long) row[0])
+                        .getMembers()
+                        .add(new MemberDto((String) row[1], (Integer) row[2]));
+            }
+        }
+
+        return teams.map(team -> rosters.get(team.getId()));
+    }
+
+    private List<Object[]> fetchMembers(List<Long> teamIds) {
+        return queryFactory
+                .select(member.team.id, member.username, member.age)
+                .from(member)
+                .where(member.team.id.in(teamIds))
+                .orderBy(member.team.id.asc(), member.id.asc())
+                .fetch()
+                .stream()
+                .map(Tuple::toArray)
+                .toList();
+    }
+
+    private List<Object[]> fetchCappedMembers(List<Long> teamIds, int maxMembersPerTeam) {
+        return em.createQuery(CAPPED_MEMBERS_HQL, Object[].class)
+                .setParameter("teamIds", teamIds)
+                .setParameter("cap", (long) maxMembersPerTeam)
+                .getResultList();
+    }
+}
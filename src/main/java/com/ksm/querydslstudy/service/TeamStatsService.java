@@ -0,0 +1,101 @@
+package com.ksm.querydslstudy.service;
+
+import com.ksm.querydslstudy.dto.QTeamStatsDto;
+import com.ksm.querydslstudy.dto.TeamStatsDto;
+import com.ksm.querydslstudy.repository.MemberBulkWriteEvent;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.ksm.querydslstudy.entity.QTeam.team;
+import static com.ksm.querydslstudy.entity.QTeamStats.teamStats;
+
+/**
+ * 팀별 회원 통계.
+ * QueryDslBasicTest 의 aggregation/group 처럼 member 전체를 groupBy 하지 않고 team_stats 를 팀 수만큼만 읽는다.
+ * team_stats 는 TeamStatsListener 가 커밋마다 갱신하고, 벌크 연산 뒤(스케줄러 스레드)나 매일 rebuild() 로 처음부터 다시 계산한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TeamStatsService {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    public List<TeamStatsDto> findAll() {
+        return queryFactory
+                .select(new QTeamStatsDto(
+                        team.id,
+                        team.name,
+                        teamStats.memberCount,
+                        teamStats.ageSum,
+                        teamStats.minAge,
+                        teamStats.maxAge))
+                .from(teamStats)
+                .join(team).on(team.id.eq(teamStats.teamId))
+                .orderBy(team.name.asc(), team.id.asc())
+                .fetch();
+    }
+
+    //member 테이블에서 전부 다시 계산 (한 트랜잭션이라 읽는 쪽은 중간 상태를 보지 않는다)
+    @Transactional
+    public int rebuild() {
+        teamStatsQuery("delete from team_stats").executeUpdate();
+        int teams = teamStatsQuery("""
+                insert into team_stats (team_id, member_count, age_sum, min_age, max_age)
+                select t.team_id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age)
+                  from team t
+                  left join member m on m.team_id = t.team_id
+                 group by t.team_id""").executeUpdate();
+        log.info("team_stats rebuilt: {} teams", teams);
+        return teams;
+    }
+
+    //team_stats 만 바뀐다고 알려서 네이티브 update 가 team 2차 캐시까지 비우지 않게 한다
+    private NativeQuery<?> teamStatsQuery(String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("team_stats");
+    }
+
+    //증분 갱신이 놓친 변경(JDBC 직접 쓰기 등)을 주기적으로 바로잡는다, 기본은 매일 04:00 ("-" 이면 끔)
+    @Scheduled(cron = "${member.team-stats.reconcile-cron:0 0 4 * * *}")
+    @Transactional
+    public void reconcile() {
+        rebuild();
+    }
+
+    //벌크 연산을 부른 스레드에서 전체 재계산을 하지 않고 표시만 해둔다
+    @EventListener
+    public void onBulkWrite(MemberBulkWriteEvent event) {
+        log.info("member bulk {} changed {} rows, team_stats rebuild scheduled", event.operation(), event.affected());
+        rebuildPending.set(true);
+    }
+
+    //연달아 들어온 벌크 연산은 한번의 재계산으로 묶는다, 실패하면 다음 주기에 다시 한다
+    @Scheduled(fixedDelayString = "${member.team-stats.bulk-rebuild-delay:PT10S}")
+    @Transactional
+    public void rebuildIfPending() {
+        if (!rebuildPending.getAndSet(false)) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            rebuildPending.set(true);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.ksm.querydslstudy.snapshot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * member 를 컬럼별 원시 배열로 들고 있는 구조. 행은 id 오름차순으로 정렬되어 있다.
+ * 팀은 사전(dictionary) 인코딩해서 회원마다 팀 코드(int)만 저장한다.
+ * 스레드 안전하지 않으며 동기화는 MemberSnapshot 의 락이 맡는다.
+ */
+final class MemberColumns {
+
+    //삭제된 행의 나이, 나이 범위 검사 한번으로 삭제된 행도 같이 걸러진다
+    static final int DELETED = Integer.MIN_VALUE;
+    static final int NO_TEAM = -1;
+
+    long[] ids;
+    int[] ages;
+    int[] teamCodes;
+    String[] usernames;
+    int size;
+
+    long[] teamIds;
+    String[] teamNames;
+    int teamCount;
+    private final Map<Long, Integer> teamCodeById = new HashMap<>();
+
+    MemberColumns(int memberCapacity, int teamCapacity) {
+        ids = new long[Math.max(16, memberCapacity)];
+        ages = new int[ids.length];
+        teamCodes = new int[ids.length];
+        usernames = new String[ids.length];
+        teamIds = new long[Math.max(16, teamCapacity)];
+        teamNames = new String[teamIds.length];
+    }
+
+    void putTeam(long teamId, String name) {
+        Integer code = teamCodeById.get(teamId);
+        if (code != null) {
+            teamNames[code] = name;
+            return;
+        }
+        if (teamCount == teamIds.length) {
+            teamIds = Arrays.copyOf(teamIds, teamCount * 2);
+            teamNames = Arrays.copyOf(teamNames, teamCount * 2);
+        }
+        teamIds[teamCount] = teamId;
+        teamNames[teamCount] = name;
+        teamCodeById.put(teamId, teamCount++);
+    }
+
+    /**
+     * @return 팀을 사전에서 찾지 못하면 false (JDBC 로 들어온 팀 등, 다시 적재해야 한다)
+     */
+    boolean putMember(long id, String username, int age, Long teamId) {
+        int teamCode = NO_TEAM;
+        if (teamId != null) {
+            Integer code = teamCodeById.get(teamId);
+            if (code == null) {
+                return false;
+            }
+            teamCode = code;
+        }
+        int index = indexOf(id);
+        if (index < 0) {
+            index = insertAt(-index - 1, id);
+        }
+        usernames[index] = username;
+        ages[index] = age;
+        teamCodes[index] = teamCode;
+        return true;
+    }
+
+    void removeMember(long id) {
+        int index = indexOf(id);
+        if (index >= 0) {
+            ages[index] = DELETED;
+            teamCodes[index] = NO_TEAM;
+            usernames[index] = null;
+        }
+    }
+
+    //이름이 같은 팀이 여럿일 수 있으므로 팀 코드별 일치 여부로 돌려준다
+    boolean[] teamMatch(String teamName) {
+        boolean[] match = new boolean[teamCount];
+        for (int code = 0; code < teamCount; code++) {
+            match[code] = teamName.equals(teamNames[code]);
+        }
+        return match;
+    }
+
+    private int indexOf(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    //시퀀스 id 는 대부분 증가하므로 보통은 끝에 붙는다
+    private int insertAt(int index, long id) {
+        if (size == ids.length) {
+            int capacity = size + (size >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            teamCodes = Arrays.copyOf(teamCodes, capacity);
+            usernames = Arrays.copyOf(usernames, capacity);
+        }
+        if (index < size) {
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(ages, index, ages, index + 1, size - index);
+            System.arraycopy(teamCodes, index, teamCodes, index + 1, size - index);
+            System.arraycopy(usernames, index, usernames, index + 1, size - index);
+        }
+        ids[index] = id;
+        size++;
+        return index;
+    }
+}
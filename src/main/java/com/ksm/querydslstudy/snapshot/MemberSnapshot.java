@@ -0,0 +1,283 @@
+package com.ksm.querydslstudy.snapshot;
+
+import com.ksm.querydslstudy.cache.ReadCachePolicy;
+import com.ksm.querydslstudy.cache.TableVersions;
+import com.ksm.querydslstudy.dto.AgeStatsDto;
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import com.ksm.querydslstudy.repository.MemberSearchKey;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * member 전체를 메모리에 컬럼 형태로 들고 나이/팀 조건 검색과 집계를 DB 없이 처리한다. 기본은 꺼져 있다 (member.snapshot.enabled).
+ * 커밋된 엔티티 변경은 MemberSnapshotListener 가 바로 반영하고,
+ * 엔티티 이벤트가 없는 벌크 쓰기(TableVersions.bulkStamp)가 보이면 백그라운드에서 다시 적재한다. 그동안은 DB 로 조회한다.
+ * 회원명 조건이 있는 검색이나 쓰기 트랜잭션 안의 조회(ReadCachePolicy)는 항상 DB 로 간다.
+ */
+@Slf4j
+@Component
+public class MemberSnapshot {
+
+    //이보다 행이 많으면 집계를 parallel stream 으로 나눠 돈다
+    private static final int PARALLEL_THRESHOLD = 1 << 18;
+
+    @Getter
+    private final boolean enabled;
+    private final JdbcTemplate jdbcTemplate;
+    private final TableVersions tableVersions;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final ExecutorService reloader;
+
+    private MemberColumns columns;
+    private long loadedBulkStamp;
+    private boolean stale;
+    //적재하는 동안 커밋된 변경, 적재가 끝나면 다시 적용한다
+    private List<SnapshotChange> buffered;
+
+    public MemberSnapshot(JdbcTemplate jdbcTemplate,
+                          TableVersions tableVersions,
+                          @Value("${member.snapshot.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableVersions = tableVersions;
+        this.reloader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-snapshot-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (enabled) {
+            requestReload();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloader.shutdownNow();
+    }
+
+    //회원명 조건이 없고 커밋된 데이터만 읽는 조회이며 스냅샷이 최신일 때만 true
+    public boolean canAnswer(MemberSearchKey key) {
+        if (!enabled || key.username() != null || key.usernamePrefix() != null || key.usernameContains() != null
+                || !ReadCachePolicy.isCacheable()) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            if (columns != null && !stale && loadedBulkStamp == bulkStamp()) {
+                return true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        requestReload();
+        return false;
+    }
+
+    public List<MemberTeamDto> content(MemberSearchKey key, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            MemberColumns c = columns;
+            Filter filter = new Filter(c, key);
+            List<MemberTeamDto> content = new ArrayList<>(Math.min(limit, 1024));
+            long skip = offset;
+            for (int i = 0; i < c.size && content.size() < limit; i++) {
+                if (!filter.matches(i)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                int teamCode = c.teamCodes[i];
+                content.add(teamCode == MemberColumns.NO_TEAM
+                        ? new MemberTeamDto(c.ids[i], c.usernames[i], c.ages[i], null, null)
+                        : new MemberTeamDto(c.ids[i], c.usernames[i], c.ages[i], c.teamIds[teamCode], c.teamNames[teamCode]));
+            }
+            return content;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(MemberSearchKey key) {
+        lock.readLock().lock();
+        try {
+            Filter filter = new Filter(columns, key);
+            return rows(columns.size).filter(filter::matches).count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public AgeStatsDto ageStats(MemberSearchKey key) {
+        lock.readLock().lock();
+        try {
+            Filter filter = new Filter(columns, key);
+            int[] ages = columns.ages;
+            IntSummaryStatistics stats = rows(columns.size).filter(filter::matches).map(i -> ages[i]).summaryStatistics();
+            return stats.getCount() == 0
+                    ? new AgeStatsDto(0, 0, null, null)
+                    : new AgeStatsDto(stats.getCount(), stats.getSum(), stats.getMin(), stats.getMax());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //MemberSnapshotListener 가 커밋 후에 호출
+    void apply(List<SnapshotChange> changes) {
+        lock.writeLock().lock();
+        try {
+            if (buffered != null) {
+                buffered.addAll(changes);
+            } else if (columns != null) {
+                applyLocked(columns, changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void requestReload() {
+        if (enabled && reloading.compareAndSet(false, true)) {
+            reloader.execute(() -> {
+                try {
+                    reload();
+                } catch (RuntimeException e) {
+                    log.warn("member snapshot reload failed", e);
+                } finally {
+                    reloading.set(false);
+                }
+            });
+        }
+    }
+
+    //DB 에서 전부 다시 읽는다. 적재 중에 커밋된 변경은 모아뒀다가 끝난 뒤 적용한다
+    public void reload() {
+        long bulkStamp = bulkStamp();
+        lock.writeLock().lock();
+        try {
+            buffered = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long started = System.nanoTime();
+        MemberColumns loaded;
+        try {
+            loaded = load();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                buffered = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            stale = false;
+            applyLocked(loaded, buffered);
+            buffered = null;
+            columns = loaded;
+            loadedBulkStamp = bulkStamp;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("member snapshot loaded: {} members, {} teams in {} ms",
+                loaded.size, loaded.teamCount, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private MemberColumns load() {
+        Integer memberCount = jdbcTemplate.queryForObject("select count(*) from member", Integer.class);
+        Integer teamCount = jdbcTemplate.queryForObject("select count(*) from team", Integer.class);
+        MemberColumns loaded = new MemberColumns(memberCount == null ? 0 : memberCount, teamCount == null ? 0 : teamCount);
+        jdbcTemplate.query("select team_id, name from team", rs -> {
+            loaded.putTeam(rs.getLong(1), rs.getString(2));
+        });
+        jdbcTemplate.query("select member_id, username, age, team_id from member order by member_id", rs -> {
+            long teamId = rs.getLong(4);
+            Long team = rs.wasNull() ? null : teamId;
+            if (!loaded.putMember(rs.getLong(1), rs.getString(2), rs.getInt(3), team)) {
+                //팀 목록을 읽은 뒤에 추가된 팀
+                loaded.putTeam(teamId, jdbcTemplate.queryForObject("select name from team where team_id = ?", String.class, teamId));
+                loaded.putMember(rs.getLong(1), rs.getString(2), rs.getInt(3), team);
+            }
+        });
+        return loaded;
+    }
+
+    private void applyLocked(MemberColumns target, List<SnapshotChange> changes) {
+        for (SnapshotChange change : changes) {
+            switch (change.type()) {
+                case TEAM_PUT -> target.putTeam(change.id(), change.name());
+                case MEMBER_REMOVE -> target.removeMember(change.id());
+                case MEMBER_PUT -> {
+                    if (!target.putMember(change.id(), change.name(), change.age(), change.teamId())) {
+                        //사전에 없는 팀(JDBC 로 직접 넣은 팀 등)을 참조하면 다시 적재
+                        stale = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private long bulkStamp() {
+        return tableVersions.bulkStamp("member", "team");
+    }
+
+    private static IntStream rows(int size) {
+        IntStream rows = IntStream.range(0, size);
+        return size >= PARALLEL_THRESHOLD ? rows.parallel() : rows;
+    }
+
+    //검색조건을 원시값으로 풀어서 행마다 분기 없이 비교한다
+    private static final class Filter {
+        private final int[] ages;
+        private final int[] teamCodes;
+        private final int ageGoe;
+        private final int ageLoe;
+        private final boolean[] teamMatch;
+
+        private Filter(MemberColumns columns, MemberSearchKey key) {
+            this.ages = columns.ages;
+            this.teamCodes = columns.teamCodes;
+            this.ageGoe = key.ageGoe() == null ? MemberColumns.DELETED + 1 : Math.max(key.ageGoe(), MemberColumns.DELETED + 1);
+            this.ageLoe = key.ageLoe() == null ? Integer.MAX_VALUE : key.ageLoe();
+            this.teamMatch = key.teamName() == null ? null : columns.teamMatch(key.teamName());
+        }
+
+        private boolean matches(int i) {
+            int age = ages[i];
+            if (age < ageGoe || age > ageLoe) {
+                return false;
+            }
+            if (teamMatch == null) {
+                return true;
+            }
+            int teamCode = teamCodes[i];
+            return teamCode != MemberColumns.NO_TEAM && teamMatch[teamCode];
+        }
+    }
+}
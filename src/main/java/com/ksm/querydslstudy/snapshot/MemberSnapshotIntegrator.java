@@ -0,0 +1,34 @@
+package com.ksm.querydslstudy.snapshot;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * MemberSnapshotListener 를 insert/update/delete 이벤트에 등록한다. 스냅샷이 켜져 있을 때만 HibernateConfig 에서 넘긴다.
+ */
+public class MemberSnapshotIntegrator implements Integrator {
+
+    private final MemberSnapshot snapshot;
+
+    public MemberSnapshotIntegrator(MemberSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        MemberSnapshotListener listener = new MemberSnapshotListener(snapshot);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.ksm.querydslstudy.snapshot;
+
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.entity.Team;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 회원/팀 엔티티 변경을 모았다가 커밋이 성공하면 MemberSnapshot 에 반영한다. 롤백되면 버린다.
+ */
+public class MemberSnapshotListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final MemberSnapshot snapshot;
+    private final Map<EventSource, List<SnapshotChange>> pending = new ConcurrentHashMap<>();
+
+    public MemberSnapshotListener(MemberSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        put(event.getSession(), event.getEntity(), event.getId(), event.getPersister(), event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        put(event.getSession(), event.getEntity(), event.getId(), event.getPersister(), event.getState());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            changes(event.getSession()).add(SnapshotChange.memberRemove((Long) event.getId()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void put(EventSource session, Object entity, Object id, EntityPersister persister, Object[] state) {
+        if (entity instanceof Member) {
+            changes(session).add(SnapshotChange.memberPut((Long) id,
+                    (String) state[index(persister, "username")],
+                    (Integer) state[index(persister, "age")],
+                    teamId(state[index(persister, "team")])));
+        } else if (entity instanceof Team) {
+            changes(session).add(SnapshotChange.teamPut((Long) id, (String) state[index(persister, "name")]));
+        }
+    }
+
+    private List<SnapshotChange> changes(EventSource session) {
+        return pending.computeIfAbsent(session, s -> {
+            s.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, afterSession) -> {
+                List<SnapshotChange> changes = pending.remove(s);
+                if (success && changes != null) {
+                    snapshot.apply(changes);
+                }
+            });
+            return new ArrayList<>();
+        });
+    }
+
+    private Long teamId(Object team) {
+        if (team instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getInternalIdentifier();
+        }
+        return team instanceof Team t ? t.getId() : null;
+    }
+
+    private int index(EntityPersister persister, String property) {
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(property)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("no property " + property + " on " + persister.getEntityName());
+    }
+}
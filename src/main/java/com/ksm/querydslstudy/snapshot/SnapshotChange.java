@@ -0,0 +1,21 @@
+package com.ksm.querydslstudy.snapshot;
+
+/**
+ * 커밋된 엔티티 변경 한 건. 행의 최종 상태를 통째로 담으므로 같은 변경을 두번 적용해도 결과가 같다.
+ */
+record SnapshotChange(Type type, long id, String name, int age, Long teamId) {
+
+    enum Type {MEMBER_PUT, MEMBER_REMOVE, TEAM_PUT}
+
+    static SnapshotChange memberPut(long id, String username, int age, Long teamId) {
+        return new SnapshotChange(Type.MEMBER_PUT, id, username, age, teamId);
+    }
+
+    static SnapshotChange memberRemove(long id) {
+        return new SnapshotChange(Type.MEMBER_REMOVE, id, null, 0, null);
+    }
+
+    static SnapshotChange teamPut(long id, String name) {
+        return new SnapshotChange(Type.TEAM_PUT, id, name, 0, null);
+    }
+}
@@ -0,0 +1,179 @@
+package com.ksm.querydslstudy.stats;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 한 트랜잭션 동안 쌓인 team_stats 변경분. 커밋 직전에 팀당 한번씩 반영한다.
+ * count/sum 은 더하기만 하면 되고, min/max 는 추가된 나이로 좁히되 빠진 나이가 있으면 (team_id, age) 인덱스로 다시 구한다.
+ */
+@Slf4j
+class TeamStatsDelta {
+
+    private static final String UPDATE_COUNTS = """
+            update team_stats
+               set member_count = member_count + ?,
+                   age_sum = age_sum + ?
+             where team_id = ?""";
+
+    private static final String UPDATE_WITH_ADDED = """
+            update team_stats
+               set member_count = member_count + ?,
+                   age_sum = age_sum + ?,
+                   min_age = case when min_age is null or min_age > ? then ? else min_age end,
+                   max_age = case when max_age is null or max_age < ? then ? else max_age end
+             where team_id = ?""";
+
+    private static final String RECOMPUTE = """
+            update team_stats
+               set member_count = (select count(*) from member m where m.team_id = ?),
+                   age_sum = (select coalesce(sum(m.age), 0) from member m where m.team_id = ?),
+                   min_age = (select min(m.age) from member m where m.team_id = ?),
+                   max_age = (select max(m.age) from member m where m.team_id = ?)
+             where team_id = ?""";
+
+    private static final String RECOMPUTE_MIN_MAX = """
+            update team_stats
+               set min_age = (select min(m.age) from member m where m.team_id = ?),
+                   max_age = (select max(m.age) from member m where m.team_id = ?)
+             where team_id = ?""";
+
+    private static final String INSERT = """
+            insert into team_stats (team_id, member_count, age_sum, min_age, max_age) values (?, 0, 0, null, null)""";
+
+    private static final String DELETE = "delete from team_stats where team_id = ?";
+
+    //팀 id 순서로 반영해서 동시에 커밋하는 트랜잭션끼리 행 락 순서가 엇갈리지 않게 한다
+    private final Map<Long, Change> changes = new TreeMap<>();
+
+    void add(Long teamId, int age) {
+        if (teamId != null) {
+            Change change = change(teamId);
+            change.count++;
+            change.ageSum += age;
+            change.addedMin = change.addedMin == null ? age : Math.min(change.addedMin, age);
+            change.addedMax = change.addedMax == null ? age : Math.max(change.addedMax, age);
+        }
+    }
+
+    void remove(Long teamId, int age) {
+        if (teamId != null) {
+            Change change = change(teamId);
+            change.count--;
+            change.ageSum -= age;
+            change.removed = true;
+        }
+    }
+
+    //이전 상태를 알 수 없는 변경(detached 엔티티 update 등)은 팀 전체를 다시 계산
+    void recompute(Long teamId) {
+        if (teamId != null) {
+            change(teamId).recompute = true;
+        }
+    }
+
+    void teamCreated(Long teamId) {
+        change(teamId).created = true;
+    }
+
+    void teamDeleted(Long teamId) {
+        change(teamId).deleted = true;
+    }
+
+    void apply(Connection connection) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT);
+             PreparedStatement updateCounts = connection.prepareStatement(UPDATE_COUNTS);
+             PreparedStatement updateWithAdded = connection.prepareStatement(UPDATE_WITH_ADDED);
+             PreparedStatement recompute = connection.prepareStatement(RECOMPUTE);
+             PreparedStatement recomputeMinMax = connection.prepareStatement(RECOMPUTE_MIN_MAX);
+             PreparedStatement delete = connection.prepareStatement(DELETE)) {
+            for (Map.Entry<Long, Change> entry : changes.entrySet()) {
+                Long teamId = entry.getKey();
+                Change change = entry.getValue();
+                if (change.deleted) {
+                    delete.setLong(1, teamId);
+                    delete.executeUpdate();
+                    continue;
+                }
+                if (change.created) {
+                    insert.setLong(1, teamId);
+                    insert.executeUpdate();
+                }
+                if (change.recompute) {
+                    ensureRow(insert, recompute(recompute, teamId), teamId, recompute);
+                    continue;
+                }
+                if (change.count == 0 && change.ageSum == 0 && change.addedMin == null && !change.removed) {
+                    continue;
+                }
+                PreparedStatement update = bindUpdate(updateCounts, updateWithAdded, teamId, change);
+                if (!ensureRow(insert, update.executeUpdate(), teamId, recompute) && change.removed) {
+                    recomputeMinMax.setLong(1, teamId);
+                    recomputeMinMax.setLong(2, teamId);
+                    recomputeMinMax.setLong(3, teamId);
+                    recomputeMinMax.executeUpdate();
+                }
+            }
+        }
+        changes.clear();
+    }
+
+    //이 기능 이전에 만들어진 팀이나 JDBC 로 넣은 팀은 행이 없다
+    //이미 있던 회원이 빠진 값에 변경분만 더하면 틀리므로, 행을 만들고 member 테이블에서 다시 계산한다
+    //행을 새로 만들었으면 true (이미 전체를 다시 계산했다)
+    private boolean ensureRow(PreparedStatement insert, int updated, Long teamId, PreparedStatement recompute) throws SQLException {
+        if (updated > 0) {
+            return false;
+        }
+        log.debug("team_stats row missing for team {}, creating and recomputing", teamId);
+        insert.setLong(1, teamId);
+        insert.executeUpdate();
+        recompute(recompute, teamId);
+        return true;
+    }
+
+    private static int recompute(PreparedStatement recompute, Long teamId) throws SQLException {
+        for (int i = 1; i <= 5; i++) {
+            recompute.setLong(i, teamId);
+        }
+        return recompute.executeUpdate();
+    }
+
+    private PreparedStatement bindUpdate(PreparedStatement updateCounts, PreparedStatement updateWithAdded,
+                                         Long teamId, Change change) throws SQLException {
+        if (change.addedMin == null) {
+            updateCounts.setLong(1, change.count);
+            updateCounts.setLong(2, change.ageSum);
+            updateCounts.setLong(3, teamId);
+            return updateCounts;
+        }
+        updateWithAdded.setLong(1, change.count);
+        updateWithAdded.setLong(2, change.ageSum);
+        updateWithAdded.setInt(3, change.addedMin);
+        updateWithAdded.setInt(4, change.addedMin);
+        updateWithAdded.setInt(5, change.addedMax);
+        updateWithAdded.setInt(6, change.addedMax);
+        updateWithAdded.setLong(7, teamId);
+        return updateWithAdded;
+    }
+
+    private Change change(Long teamId) {
+        return changes.computeIfAbsent(teamId, id -> new Change());
+    }
+
+    private static class Change {
+        private long count;
+        private long ageSum;
+        private Integer addedMin;
+        private Integer addedMax;
+        private boolean removed;
+        private boolean recompute;
+        private boolean created;
+        private boolean deleted;
+    }
+}
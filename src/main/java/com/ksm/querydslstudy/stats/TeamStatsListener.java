@@ -0,0 +1,117 @@
+package com.ksm.querydslstudy.stats;
+
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.entity.Team;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 회원 insert/delete 와 팀 변경(Member.changeTeam), 나이 변경을 보고 team_stats 변경분을 모은다.
+ * 모인 변경분은 flush 가 끝난 뒤 커밋 직전(BeforeTransactionCompletionProcess)에 같은 트랜잭션으로 반영하므로
+ * 롤백되면 통계도 같이 롤백된다.
+ * querydsl update(member)/delete(member) 같은 벌크 연산은 이벤트가 없으므로 TeamStatsService 가 벌크 뒤에 rebuild() 로 맞춘다.
+ */
+public class TeamStatsListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final Map<EventSource, TeamStatsDelta> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            delta(event.getSession()).add(teamId(persister, event.getState()), age(persister, event.getState()));
+        } else if (event.getEntity() instanceof Team team) {
+            delta(event.getSession()).teamCreated(team.getId());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Long newTeamId = teamId(persister, event.getState());
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            delta(event.getSession()).recompute(newTeamId);
+            return;
+        }
+        Long oldTeamId = teamId(persister, oldState);
+        int oldAge = age(persister, oldState);
+        int newAge = age(persister, event.getState());
+        if (Objects.equals(oldTeamId, newTeamId) && oldAge == newAge) {
+            return;
+        }
+        TeamStatsDelta delta = delta(event.getSession());
+        delta.remove(oldTeamId, oldAge);
+        delta.add(newTeamId, newAge);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            delta(event.getSession()).remove(teamId(persister, event.getDeletedState()), age(persister, event.getDeletedState()));
+        } else if (event.getEntity() instanceof Team team) {
+            delta(event.getSession()).teamDeleted(team.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    //세션(트랜잭션)마다 처음 변경이 생길 때 커밋 직전 반영과 종료 후 정리를 한번씩 등록한다
+    private TeamStatsDelta delta(EventSource session) {
+        return pending.computeIfAbsent(session, s -> {
+            s.getActionQueue().registerProcess(
+                    (BeforeTransactionCompletionProcess) beforeSession -> {
+                        TeamStatsDelta delta = pending.remove(s);
+                        if (delta != null) {
+                            beforeSession.doWork(delta::apply);
+                        }
+                    });
+            s.getActionQueue().registerProcess(
+                    (AfterTransactionCompletionProcess) (success, afterSession) -> pending.remove(s));
+            return new TeamStatsDelta();
+        });
+    }
+
+    private Long teamId(EntityPersister persister, Object[] state) {
+        Object team = state[index(persister, "team")];
+        //지연 로딩 프록시는 초기화하지 않고 id 만 꺼낸다
+        if (team instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getInternalIdentifier();
+        }
+        return team instanceof Team t ? t.getId() : null;
+    }
+
+    private int age(EntityPersister persister, Object[] state) {
+        return (Integer) state[index(persister, "age")];
+    }
+
+    private int index(EntityPersister persister, String property) {
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(property)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("no property " + property + " on " + persister.getEntityName());
+    }
+}
@@ -1,12 +1,15 @@
 package com.ksm.querydslstudy;
 
 import com.ksm.querydslstudy.dto.MemberDto;
+import com.ksm.querydslstudy.dto.MemberDtoMapper;
 import com.ksm.querydslstudy.dto.QMemberDto;
 import com.ksm.querydslstudy.dto.UserDto;
+import com.ksm.querydslstudy.dto.UserDtoMapper;
 import com.ksm.querydslstudy.entity.Member;
 import com.ksm.querydslstudy.entity.QMember;
 import com.ksm.querydslstudy.entity.Team;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.ExpressionUtils;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
@@ -179,6 +182,40 @@ public class QueryDslMiddleTest {
         }
     }
 
+    //mapper-processor 가 생성한 매퍼 사용, 리플렉션 없이 생성자를 바로 호출한다
+    //생성자 방식처럼 순서대로 넘기므로 UserDto.name 같이 이름이 달라도 별칭이 필요 없다
+    @Test
+    public void findDtoByGeneratedMapper() {
+        List<MemberDto> result = queryFactory
+                .select(MemberDtoMapper.projection(member.username, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertEquals(4, result.size());
+        assertEquals("member1", result.get(0).getUserName());
+
+        List<UserDto> result2 = queryFactory
+                .select(UserDtoMapper.projection(member.username, member.age))
+                .from(member)
+                .orderBy(member.age.desc())
+                .fetch();
+
+        assertEquals("member4", result2.get(0).getName());
+        assertEquals(40, result2.get(0).getAge());
+
+        //Tuple 로 조회한 결과도 바로 변환
+        Tuple tuple = queryFactory
+                .select(member.username, member.age)
+                .from(member)
+                .where(member.username.eq("member2"))
+                .fetchOne();
+
+        UserDto userDto = UserDtoMapper.map(tuple);
+        assertEquals("member2", userDto.getName());
+        assertEquals(20, userDto.getAge());
+    }
+
     //동적쿼리 - BooleanBuilder, where 다중조건
     @Test
     public void dynamicQuery() {
@@ -0,0 +1,43 @@
+package com.ksm.querydslstudy.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    public void neverRejectsInsertedValues() {
+        List<String> names = IntStream.range(0, 10_000).mapToObj(i -> "team" + i).toList();
+        BloomFilter filter = BloomFilter.of(names, names.size(), 0.01);
+
+        assertThat(names).allMatch(filter::mightContain);
+        assertThat(filter.entries()).isEqualTo(10_000);
+    }
+
+    @Test
+    public void falsePositiveRateStaysNearTarget() {
+        List<String> names = IntStream.range(0, 10_000).mapToObj(i -> "team" + i).toList();
+        BloomFilter filter = BloomFilter.of(names, names.size(), 0.01);
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .mapToObj(i -> "unknown" + i)
+                .filter(filter::mightContain)
+                .count();
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.falsePositiveRate()).isBetween(0.005, 0.02);
+        //n=10000, p=0.01 이면 약 9.6 bit/원소
+        assertThat(filter.memoryBytes()).isLessThan(13_000);
+    }
+
+    @Test
+    public void emptyFilterRejectsEverything() {
+        BloomFilter filter = BloomFilter.of(List.of(), 0, 0.01);
+
+        assertThat(filter.mightContain("teamA")).isFalse();
+    }
+}
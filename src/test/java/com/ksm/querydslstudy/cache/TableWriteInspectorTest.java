@@ -0,0 +1,109 @@
+package com.ksm.querydslstudy.cache;
+
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.entity.Team;
+import com.ksm.querydslstudy.repository.MemberSearchKey;
+import com.ksm.querydslstudy.snapshot.MemberSnapshot;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.ksm.querydslstudy.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+//스냅샷은 커밋된 데이터만 읽으므로 테스트 데이터는 커밋하고 이 테스트의 팀(inspector 로 시작)만 지운다
+@SpringBootTest
+class TableWriteInspectorTest {
+
+    private static final MemberSearchKey TEAM_KEY = new MemberSearchKey(null, null, null, "inspectorA", null, null);
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TableVersions tableVersions;
+
+    MemberSnapshot snapshot;
+
+    @AfterEach
+    void tearDown() {
+        if (snapshot != null) {
+            snapshot.shutdown();
+        }
+        tx.executeWithoutResult(status -> {
+            List<Long> teamIds = em.createQuery("select t.id from Team t where t.name like 'inspector%'", Long.class)
+                    .getResultList();
+            if (teamIds.isEmpty()) {
+                return;
+            }
+            em.createQuery("delete from Member m where m.team.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            em.createQuery("delete from TeamStats s where s.teamId in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+        });
+    }
+
+    //벌크 update 를 준비할 때 올린 벌크 버전을 커밋 전에 다시 적재한 스냅샷이 기록해도, 커밋 뒤 한번 더 올려서 버린다
+    @Test
+    public void bulkWriteBumpsBulkStampAgainAfterCommit() throws InterruptedException {
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("inspectorA");
+            em.persist(team);
+            em.persist(new Member("inspector1", 10, team));
+        });
+        snapshot = new MemberSnapshot(jdbcTemplate, tableVersions, true);
+        snapshot.reload();
+        long before = tableVersions.bulkStamp("member");
+
+        long prepared = tx.execute(status -> {
+            new JPAQueryFactory(em)
+                    .update(member)
+                    .set(member.age, 20)
+                    .where(member.username.eq("inspector1"))
+                    .execute();
+            //다른 스레드의 적재는 커밋 전 데이터(10살)를 읽고, 이미 올라간 벌크 버전을 기록한다
+            CompletableFuture.runAsync(snapshot::reload).join();
+            assertThat(CompletableFuture.supplyAsync(() -> snapshot.canAnswer(TEAM_KEY)).join()).isTrue();
+            return tableVersions.bulkStamp("member");
+        });
+
+        assertThat(prepared).isGreaterThan(before);
+        assertThat(tableVersions.bulkStamp("member")).isGreaterThan(prepared);
+        assertThat(snapshot.canAnswer(TEAM_KEY)).isFalse();
+
+        //canAnswer 가 요청한 백그라운드 적재가 끝나면 커밋된 값을 보여준다
+        awaitReloaded();
+        assertThat(snapshot.content(TEAM_KEY, 0, 10))
+                .extracting(MemberTeamDto::getAge)
+                .containsExactly(20);
+    }
+
+    private void awaitReloaded() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!snapshot.canAnswer(TEAM_KEY)) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ksm.querydslstudy.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TtlLruCacheTest {
+
+    @Test
+    public void lruEviction() {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(2, Duration.ofMinutes(1));
+        cache.put("a", 1, 0);
+        cache.put("b", 2, 0);
+        cache.get("a", 0);
+        cache.put("c", 3, 0);
+
+        //가장 오래 안 쓴 b 가 밀려난다
+        assertThat(cache.get("b", 0)).isNull();
+        assertThat(cache.get("a", 0)).isEqualTo(1);
+        assertThat(cache.get("c", 0)).isEqualTo(3);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void staleStampIsMiss() {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(10, Duration.ofMinutes(1));
+        cache.put("a", 1, 0);
+
+        assertThat(cache.get("a", 1)).isNull();
+        assertThat(cache.getOrLoad("a", 1, () -> 2)).isEqualTo(2);
+        assertThat(cache.get("a", 1)).isEqualTo(2);
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(2);
+    }
+
+    @Test
+    public void expiredIsMiss() {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(10, Duration.ZERO);
+        cache.put("a", 1, 0);
+
+        assertThat(cache.get("a", 0)).isNull();
+    }
+}
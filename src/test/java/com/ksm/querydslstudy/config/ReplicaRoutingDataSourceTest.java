@@ -0,0 +1,74 @@
+package com.ksm.querydslstudy.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicaRoutingDataSourceTest {
+
+    DriverManagerDataSource primary = new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1", "sa", "");
+    DriverManagerDataSource replica1 = new DriverManagerDataSource("jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1", "sa", "");
+    DriverManagerDataSource replica2 = new DriverManagerDataSource("jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1", "sa", "");
+
+    @AfterEach
+    public void after() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void writeGoesToPrimary() throws SQLException {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2));
+
+        assertThat(urlOf(routing)).contains("primary");
+    }
+
+    @Test
+    public void readOnlyRoundRobinsReplicas() throws SQLException {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(urlOf(routing)).contains("replica1");
+        assertThat(urlOf(routing)).contains("replica2");
+        assertThat(urlOf(routing)).contains("replica1");
+    }
+
+    @Test
+    public void fallsBackWhenReplicaUnavailable() throws SQLException {
+        DriverManagerDataSource broken = new DriverManagerDataSource("jdbc:unknown:replica", "sa", "");
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(broken, replica2));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(urlOf(routing)).contains("replica2");
+
+        ReplicaRoutingDataSource allBroken = new ReplicaRoutingDataSource(primary, List.of(broken));
+        assertThat(urlOf(allBroken)).contains("primary");
+    }
+
+    //스키마 없는 replica 는 시작할 때 실패, 접속이 안 되는 replica 는 건너뛴다
+    @Test
+    public void verifyReplicasRequiresTable() throws SQLException {
+        try (Connection connection = replica1.getConnection()) {
+            connection.createStatement().execute("create table if not exists member (member_id bigint)");
+        }
+        DriverManagerDataSource broken = new DriverManagerDataSource("jdbc:unknown:replica", "sa", "");
+
+        new ReplicaRoutingDataSource(primary, List.of(replica1, broken)).verifyReplicas("member");
+        assertThatThrownBy(() -> new ReplicaRoutingDataSource(primary, List.of(replica1, replica2)).verifyReplicas("member"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("replica2");
+    }
+
+    private String urlOf(ReplicaRoutingDataSource routing) throws SQLException {
+        try (Connection connection = routing.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+}
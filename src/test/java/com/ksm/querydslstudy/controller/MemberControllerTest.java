@@ -0,0 +1,114 @@
+package com.ksm.querydslstudy.controller;
+
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.entity.Team;
+import com.ksm.querydslstudy.support.SqlStatementBudget;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//@AutoConfigureMockMvc 를 붙이면 컨텍스트가 따로 떠서 스키마(ddl-auto=create)와 시퀀스가 다시 만들어지므로
+//다른 테스트와 같은 컨텍스트에서 MockMvc 를 직접 만든다
+@SpringBootTest
+@Transactional
+class MemberControllerTest {
+
+    @Autowired
+    WebApplicationContext context;
+
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @BeforeEach
+    public void before() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    //팀 정보는 조인해서 한번에 가져오므로 회원 수와 상관없이 content 쿼리 하나로 끝나야 한다 (첫 페이지라 count 생략)
+    @Test
+    @SqlStatementBudget(1)
+    public void searchMembersV3() throws Exception {
+        mockMvc.perform(get("/v3/members").param("teamName", "teamA"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(5))
+                .andExpect(jsonPath("$.totalElements").value(5));
+    }
+
+    @Test
+    public void cursorSizeMustBePositive() throws Exception {
+        mockMvc.perform(get("/v4/members").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SqlStatementBudget(1)
+    public void searchMembersV4() throws Exception {
+        mockMvc.perform(get("/v4/members").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    //3건만 잘라서 내려주므로 content + count 쿼리
+    @Test
+    @SqlStatementBudget(2)
+    public void searchMembersV5() throws Exception {
+        mockMvc.perform(get("/v5/members").param("teamName", "teamA").param("size", "3").param("withTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.content[0].teamName").value("teamA"))
+                .andExpect(jsonPath("$.nextPage").value(1))
+                .andExpect(jsonPath("$.size").value(3))
+                .andExpect(jsonPath("$.total").value(5))
+                .andExpect(jsonPath("$.pageable").doesNotExist());
+    }
+
+    //withTotal 이 없으면 count 쿼리 없이 한 건 더 읽어서 다음 페이지만 알려준다 (요청마다 content 쿼리 하나)
+    @Test
+    @SqlStatementBudget(2)
+    public void searchMembersV5WithoutTotal() throws Exception {
+        mockMvc.perform(get("/v5/members").param("teamName", "teamA").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.nextPage").value(1))
+                .andExpect(jsonPath("$.total").doesNotExist());
+
+        mockMvc.perform(get("/v5/members").param("teamName", "teamA").param("size", "3").param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.nextPage").doesNotExist());
+    }
+
+    @Test
+    @SqlStatementBudget(1)
+    public void searchMembersV5Cursor() throws Exception {
+        mockMvc.perform(get("/v5/members/cursor").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andExpect(jsonPath("$.nextPage").doesNotExist())
+                .andExpect(jsonPath("$.total").doesNotExist());
+    }
+}
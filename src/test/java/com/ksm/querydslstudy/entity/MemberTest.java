@@ -4,11 +4,16 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Commit;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 
+//커밋한 데이터가 다른 테스트 결과에 섞이지 않도록 커밋이 끝난 뒤 이 테스트가 만든 행만 지운다
 @SpringBootTest
 @Transactional
 @Commit
@@ -16,6 +21,25 @@ public class MemberTest {
 
     @PersistenceContext
     EntityManager em;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    List<Long> teamIds = new ArrayList<>();
+    List<Long> memberIds = new ArrayList<>();
+
+    @AfterTransaction
+    public void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            //엔티티로 지워야 team_stats, trigram 색인에도 반영된다
+            memberIds.forEach(id -> em.remove(em.find(Member.class, id)));
+            em.flush();
+            em.createQuery("delete from TeamStats s where s.teamId in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            teamIds.forEach(id -> em.remove(em.find(Team.class, id)));
+        });
+    }
     @Test
 
     public void testEntity() {
@@ -31,6 +55,8 @@ public class MemberTest {
         em.persist(member2);
         em.persist(member3);
         em.persist(member4);
+        teamIds.addAll(List.of(teamA.getId(), teamB.getId()));
+        memberIds.addAll(List.of(member1.getId(), member2.getId(), member3.getId(), member4.getId()));
         //초기화
         em.flush();
         em.clear();
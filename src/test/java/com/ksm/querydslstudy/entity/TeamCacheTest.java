@@ -0,0 +1,107 @@
+package com.ksm.querydslstudy.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//2차 캐시를 켠 컨텍스트는 따로 뜨므로 다른 테스트의 스키마를 다시 만들지 않도록 메모리 DB 를 쓴다
+//캐시는 커밋된 뒤에 채워지므로 트랜잭션을 나눠서 확인한다
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:team-cache;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.provider=com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.uri=caffeine.conf"
+})
+class TeamCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void before() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void findHitsCache() {
+        Long teamId = tx.execute(status -> {
+            Team team = new Team("cacheA");
+            em.persist(team);
+            return team.getId();
+        });
+        statistics.clear();
+
+        String name = tx.execute(status -> em.find(Team.class, teamId).getName());
+
+        assertThat(name).isEqualTo("cacheA");
+        assertThat(teamRegion().getHitCount()).isEqualTo(1);
+        assertThat(teamRegion().getMissCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    //회원의 팀 프록시를 초기화할 때도 select 없이 캐시에서 가져온다
+    @Test
+    public void lazyTeamHitsCache() {
+        Long memberId = tx.execute(status -> {
+            Team team = new Team("cacheB");
+            em.persist(team);
+            Member member = new Member("cacheMember", 10, team);
+            em.persist(member);
+            return member.getId();
+        });
+        statistics.clear();
+
+        String name = tx.execute(status -> em.find(Member.class, memberId).getTeam().getName());
+
+        assertThat(name).isEqualTo("cacheB");
+        assertThat(teamRegion().getHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    //JPQL 벌크 update 는 리전을 비우므로 다음 조회는 DB 에서 읽고 다시 캐시에 담는다
+    @Test
+    public void bulkUpdateEvictsRegion() {
+        Long teamId = tx.execute(status -> {
+            Team team = new Team("cacheC");
+            em.persist(team);
+            return team.getId();
+        });
+        tx.executeWithoutResult(status -> em.createQuery("update Team t set t.name = 'cacheC2' where t.id = :id")
+                .setParameter("id", teamId)
+                .executeUpdate());
+        statistics.clear();
+
+        String first = tx.execute(status -> em.find(Team.class, teamId).getName());
+        String second = tx.execute(status -> em.find(Team.class, teamId).getName());
+
+        assertThat(first).isEqualTo("cacheC2");
+        assertThat(second).isEqualTo("cacheC2");
+        assertThat(teamRegion().getMissCount()).isEqualTo(1);
+        assertThat(teamRegion().getPutCount()).isEqualTo(1);
+        assertThat(teamRegion().getHitCount()).isEqualTo(1);
+    }
+
+    private CacheRegionStatistics teamRegion() {
+        return statistics.getDomainDataRegionStatistics("team");
+    }
+}
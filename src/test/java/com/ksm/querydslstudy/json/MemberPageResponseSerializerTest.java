@@ -0,0 +1,42 @@
+package com.ksm.querydslstudy.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ksm.querydslstudy.dto.MemberPageResponse;
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberPageResponseSerializerTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    //MemberTeamDto 에 필드가 추가/변경되면 기본 직렬화와 달라지므로 serializer 도 같이 고쳐야 한다
+    @Test
+    public void rowsMatchDefaultSerialization() throws Exception {
+        List<MemberTeamDto> rows = List.of(
+                new MemberTeamDto(1L, "member1", 10, 2L, "teamA"),
+                new MemberTeamDto(3L, "member\"3\"", 0, null, null));
+
+        JsonNode page = objectMapper.readTree(objectMapper.writeValueAsString(
+                new MemberPageResponse(rows, null, 1, 7L)));
+
+        assertThat(page.get("content")).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsString(rows)));
+        assertThat(page.get("nextPage").asInt()).isEqualTo(1);
+        assertThat(page.get("size").asInt()).isEqualTo(2);
+        assertThat(page.get("total").asLong()).isEqualTo(7);
+    }
+
+    @Test
+    public void omitsAbsentValues() throws Exception {
+        JsonNode page = objectMapper.readTree(objectMapper.writeValueAsString(
+                new MemberPageResponse(List.of(), "cursor", null, null)));
+
+        assertThat(page.get("nextCursor").asText()).isEqualTo("cursor");
+        assertThat(page.has("nextPage")).isFalse();
+        assertThat(page.has("total")).isFalse();
+    }
+}
@@ -0,0 +1,53 @@
+package com.ksm.querydslstudy.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SqlStatementRecorderTest {
+
+    @Autowired
+    SqlStatementRecorder recorder;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void countsStatementsAndRows() {
+        recorder.start();
+        jdbcTemplate.queryForList("select x from system_range(1, 3)");
+        SqlStatementRecorder.Recording recording = recorder.stop();
+
+        assertThat(recording.getStatements()).isEqualTo(1);
+        assertThat(recording.getRows()).isEqualTo(3);
+        assertThat(recording.getSql()).singleElement().asString().contains("system_range");
+    }
+
+    @Test
+    public void nestedRecordingMergesIntoParent() {
+        recorder.start();
+        recorder.start();
+        jdbcTemplate.queryForObject("select 1", Integer.class);
+        assertThat(recorder.stop().getStatements()).isEqualTo(1);
+        jdbcTemplate.queryForObject("select 2", Integer.class);
+
+        assertThat(recorder.stop().getStatements()).isEqualTo(2);
+    }
+
+    //다른 스레드의 쿼리는 propagate 로 감쌌을 때만 같은 집계에 들어간다
+    @Test
+    public void propagatesToWorkerThread() {
+        recorder.start();
+        CompletableFuture.supplyAsync(recorder.propagate(() -> jdbcTemplate.queryForObject("select 1", Integer.class))).join();
+        CompletableFuture.supplyAsync(() -> jdbcTemplate.queryForObject("select 2", Integer.class)).join();
+        SqlStatementRecorder.Recording recording = recorder.stop();
+
+        assertThat(recording.getStatements()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,154 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.entity.Team;
+import com.ksm.querydslstudy.metrics.SqlStatementRecorder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.QueryTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//count 는 풀 스레드의 별도 트랜잭션에서 실행되므로 테스트 데이터는 커밋하고 이 테스트의 팀(concurrent 로 시작)만 지운다
+@SpringBootTest
+class ConcurrentPageExecutorTest {
+
+    //취소하지 않으면 수십 초 이상 걸리는 쿼리
+    private static final String SLOW_SQL = "select sum(x) from system_range(1, 10000000000)";
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Autowired
+    MemberSearchTemplates templates;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    SqlStatementRecorder recorder;
+
+    @Autowired
+    CancellableStatements statements;
+
+    ConcurrentPageExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        tx.executeWithoutResult(status -> {
+            List<Long> teamIds = em.createQuery("select t.id from Team t where t.name like 'concurrent%'", Long.class)
+                    .getResultList();
+            if (teamIds.isEmpty()) {
+                return;
+            }
+            em.createQuery("delete from Member m where m.team.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            em.createQuery("delete from TeamStats s where s.teamId in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    public void countsOnPoolThread() {
+        executor = executor(2, Duration.ofSeconds(5));
+        Long teamId = tx.execute(status -> {
+            Team team = new Team("concurrentA");
+            em.persist(team);
+            for (int i = 0; i < 3; i++) {
+                em.persist(new Member("concurrent" + i, i * 10, team));
+            }
+            return team.getId();
+        });
+        MemberSearchKey key = new MemberSearchKey(null, null, null, "concurrentA", null, null);
+
+        assertThat(executor.startCount(key, List.of(teamId)).join()).isEqualTo(3);
+
+        String caller = Thread.currentThread().getName();
+        ConcurrentPageExecutor.PendingCount pending = executor.submit(() ->
+                Thread.currentThread().getName().equals(caller) ? 0L : 1L);
+        assertThat(pending.join()).isEqualTo(1);
+    }
+
+    //timeout 을 넘기면 기다리던 쪽은 예외로 끝나고, 실행 중이던 count 문장도 취소된다
+    @Test
+    public void timeoutCancelsRunningCount() {
+        executor = executor(2, Duration.ofMillis(300));
+
+        ConcurrentPageExecutor.PendingCount pending = executor.submit(this::slowCount);
+
+        assertThatThrownBy(pending::join).isInstanceOf(QueryTimeoutException.class);
+        assertCancelled(pending.future());
+    }
+
+    @Test
+    public void cancelStopsRunningCount() throws InterruptedException {
+        executor = executor(2, Duration.ofMinutes(1));
+        CountDownLatch started = new CountDownLatch(1);
+
+        ConcurrentPageExecutor.PendingCount pending = executor.submit(() -> {
+            started.countDown();
+            return slowCount();
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        pending.cancel();
+
+        assertCancelled(pending.future());
+    }
+
+    //풀이 다 차 있으면 대기열에 쌓지 않고 null 을 돌려줘서 호출한 쪽이 자기 커넥션으로 count 하게 한다
+    @Test
+    public void busyPoolRejectsInsteadOfQueueing() throws InterruptedException {
+        executor = executor(1, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        ConcurrentPageExecutor.PendingCount busy = executor.submit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0L;
+        });
+
+        assertThat(executor.submit(() -> 1L)).isNull();
+
+        release.countDown();
+        assertThat(busy.join()).isZero();
+    }
+
+    private ConcurrentPageExecutor executor(int poolSize, Duration timeout) {
+        return new ConcurrentPageExecutor(em, templates, transactionManager, recorder, statements, true, poolSize, timeout);
+    }
+
+    private Long slowCount() {
+        return ((Number) em.createNativeQuery(SLOW_SQL).getSingleResult()).longValue();
+    }
+
+    //취소되지 않았다면 몇 초 안에 끝날 수 없다, 시작 전에 취소됐으면 쿼리 없이 null 로 끝난다
+    private static void assertCancelled(CompletableFuture<Long> future) {
+        assertThat(future.handle((count, error) -> count))
+                .succeedsWithin(Duration.ofSeconds(5))
+                .isNull();
+    }
+}
@@ -0,0 +1,141 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.dto.MemberSearchCondition;
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.entity.Team;
+import com.ksm.querydslstudy.jpaRepository.TeamJpaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ksm.querydslstudy.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+//chunk 마다 커밋되므로 @Transactional 롤백을 쓸 수 없어 직접 정리한다
+//다른 테스트가 커밋한 행과 섞이지 않도록 조건과 검증, 정리 모두 이 테스트의 팀으로 한정한다
+@SpringBootTest
+@RecordApplicationEvents
+class MemberBulkRepositoryTest {
+
+    @Autowired
+    MemberBulkRepository memberBulkRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamJpaRepository teamJpaRepository;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Autowired
+    ApplicationEvents events;
+
+    Team team;
+
+    @BeforeEach
+    void setUp() {
+        team = teamJpaRepository.save(new Team("bulkTeam"));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            members.add(new Member("bulk" + i, i, team));
+        }
+        memberRepository.saveAll(members);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id = :teamId")
+                    .setParameter("teamId", team.getId())
+                    .executeUpdate();
+            em.remove(em.find(Team.class, team.getId()));
+        });
+    }
+
+    @Test
+    public void updateInChunks() {
+        List<BulkResult> progress = new ArrayList<>();
+
+        BulkResult result = memberBulkRepository.update(
+                member.team.id.eq(team.getId()).and(member.age.goe(20)),
+                clause -> clause.set(member.age, member.age.add(100)),
+                BulkOptions.of(7).withListener(progress::add));
+
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.affected()).isEqualTo(30);
+        assertThat(result.chunks()).isEqualTo(progress.size()).isGreaterThan(1);
+        //구간이 겹치지 않으므로 조건을 계속 만족해도 한번씩만 변경된다
+        assertThat(teamMembers())
+                .filteredOn(m -> m.getAge() >= 20)
+                .extracting(Member::getAge)
+                .allMatch(age -> age >= 120 && age < 150);
+        //회원명은 그대로라 trigram 색인은 다시 만들지 않는다
+        assertThat(events.stream(MemberBulkWriteEvent.class))
+                .singleElement()
+                .matches(event -> !event.usernamesChanged());
+    }
+
+    //회원명을 바꾸면 chunk 마다 그 구간의 trigram 색인을 같이 커밋해서 부분 검색에 바로 반영된다
+    @Test
+    public void usernameUpdateReindexesProcessedRange() {
+        MemberSearchCondition renamed = new MemberSearchCondition();
+        renamed.setUsernameContains("renamed");
+        renamed.setTeamName("bulkTeam");
+        List<Integer> foundAfterChunk = new ArrayList<>();
+
+        BulkResult result = memberBulkRepository.update(
+                member.team.id.eq(team.getId()).and(member.age.lt(3)),
+                clause -> clause.set(member.username, member.username.concat("renamed")),
+                BulkOptions.of(1).withListener(progress -> foundAfterChunk.add(memberRepository.search(renamed).size())));
+
+        assertThat(foundAfterChunk).containsExactly(1, 2, 3);
+
+        assertThat(events.stream(MemberBulkWriteEvent.class))
+                .singleElement()
+                .matches(MemberBulkWriteEvent::usernamesChanged)
+                .matches(event -> event.toId() == result.lastCompletedId());
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernameContains("0renamed");
+        condition.setTeamName("bulkTeam");
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("bulk0renamed");
+    }
+
+    @Test
+    public void deleteResumesAfterLastCompletedId() {
+        List<Member> targets = teamMembers().stream()
+                .filter(m -> m.getAge() < 10)
+                .toList();
+        Long firstId = targets.get(0).getId();
+
+        BulkResult result = memberBulkRepository.delete(member.team.id.eq(team.getId()).and(member.age.lt(10)),
+                BulkOptions.of(100).resumeAfter(firstId));
+
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.affected()).isEqualTo(9);
+        assertThat(teamMembers())
+                .extracting(Member::getUsername)
+                .contains("bulk0")
+                .doesNotContain("bulk1", "bulk9");
+    }
+
+    private List<Member> teamMembers() {
+        return memberRepository.findAll().stream()
+                .filter(m -> m.getTeam() != null && team.getId().equals(m.getTeam().getId()))
+                .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                .toList();
+    }
+}
@@ -1,9 +1,14 @@
 package com.ksm.querydslstudy.repository;
 
+import com.ksm.querydslstudy.dto.AgeStatsDto;
+import com.ksm.querydslstudy.dto.CursorPage;
+import com.ksm.querydslstudy.dto.MemberCursor;
 import com.ksm.querydslstudy.dto.MemberSearchCondition;
 import com.ksm.querydslstudy.dto.MemberTeamDto;
+import com.ksm.querydslstudy.dto.UsernameLookupResult;
 import com.ksm.querydslstudy.entity.Member;
 import com.ksm.querydslstudy.entity.Team;
+import com.ksm.querydslstudy.support.SqlStatementBudget;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
@@ -11,10 +16,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.IllegalTransactionStateException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -27,6 +36,7 @@ class MemberRepositoryTest {
     MemberRepository memberRepository;
 
     @Test
+    @SqlStatementBudget(2)
     public void basicTest() {
         Member member = new Member("member1", 10);
         memberRepository.save(member);
@@ -42,6 +52,7 @@ class MemberRepositoryTest {
     }
 
     @Test
+    @SqlStatementBudget(1)
     public void searchTest() {
         Team teamA = new Team("teamA");
         Team teamB = new Team("teamB");
@@ -68,6 +79,35 @@ class MemberRepositoryTest {
     }
 
     @Test
+    @SqlStatementBudget(3)
+    public void searchUsernamePrefixAndContainsTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("kim", 10, teamA));
+        em.persist(new Member("kimchi", 20, teamA));
+        em.persist(new Member("akim", 30, teamA));
+        em.persist(new Member("ki_m", 40, teamA));
+
+        MemberSearchCondition prefix = new MemberSearchCondition();
+        prefix.setUsernamePrefix("kim");
+        assertThat(memberRepository.search(prefix)).extracting("username")
+                .containsExactlyInAnyOrder("kim", "kimchi");
+
+        //3글자 이상은 trigram 색인으로 후보를 고른다 (flush 시점에 색인이 같이 쓰인다)
+        MemberSearchCondition contains = new MemberSearchCondition();
+        contains.setUsernameContains("kim");
+        assertThat(memberRepository.search(contains)).extracting("username")
+                .containsExactlyInAnyOrder("kim", "kimchi", "akim");
+
+        //짧은 검색어는 like, 와일드카드 문자는 escape 된다
+        MemberSearchCondition shortContains = new MemberSearchCondition();
+        shortContains.setUsernameContains("i_");
+        assertThat(memberRepository.search(shortContains)).extracting("username")
+                .containsExactly("ki_m");
+    }
+
+    @Test
+    @SqlStatementBudget(2)
     public void searchPageSimpleTest() {
         Team teamA = new Team("teamA");
         Team teamB = new Team("teamB");
@@ -92,7 +132,143 @@ class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
     }
 
+    @Test
+    @SqlStatementBudget(3)
+    public void searchPageComplexTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 4; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        //첫 페이지가 꽉 차면 count 쿼리로 전체 건수를 구한다
+        Page<MemberTeamDto> first = memberRepository.searchPageComplex(condition, PageRequest.of(0, 3));
+        assertThat(first.getTotalElements()).isEqualTo(4);
+
+        //마지막 페이지는 offset + 컨텐츠 사이즈로 전체 건수를 계산한다
+        Page<MemberTeamDto> last = memberRepository.searchPageComplex(condition, PageRequest.of(1, 3));
+        assertThat(last.getContent()).extracting("username").containsExactly("member4");
+        assertThat(last.getTotalElements()).isEqualTo(4);
+    }
+
+    //int 범위를 넘는 offset 은 잘리지 않고 빈 페이지 + count 쿼리 하나로 끝난다
+    @Test
+    @SqlStatementBudget(1)
+    public void searchPageBeyondIntOffsetTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(new MemberSearchCondition(),
+                PageRequest.of(Integer.MAX_VALUE, 2));
+
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    @SqlStatementBudget(3)
+    public void searchByCursorTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, 50 - i * 10, teamA));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        CursorPage<MemberTeamDto> first = memberRepository.searchByCursor(condition, MemberCursor.SortKey.AGE, null, 2);
+        assertThat(first.getContent()).extracting("username").containsExactly("member5", "member4");
+        assertThat(first.isHasNext()).isTrue();
 
+        CursorPage<MemberTeamDto> second = memberRepository.searchByCursor(condition, first.getNextCursor(), 2);
+        assertThat(second.getContent()).extracting("username").containsExactly("member3", "member2");
+
+        CursorPage<MemberTeamDto> last = memberRepository.searchByCursor(condition, second.getNextCursor(), 2);
+        assertThat(last.getContent()).extracting("username").containsExactly("member1");
+        assertThat(last.getNextCursor()).isNull();
+    }
 
+    @Test
+    @SqlStatementBudget(1)
+    public void searchStreamTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        try (Stream<MemberTeamDto> result = memberRepository.searchStream(condition, 100)) {
+            assertThat(result).extracting("username").containsExactly("member1", "member2");
+        }
+    }
+
+    //트랜잭션 밖에서 받은 Stream 은 커서가 이미 닫혀 있으므로 호출 시점에 막는다
+    @Test
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void searchStreamRequiresTransactionTest() {
+        assertThatThrownBy(() -> memberRepository.searchStream(new MemberSearchCondition(), 100))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    @SqlStatementBudget(1)
+    public void ageStatsTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        AgeStatsDto stats = memberRepository.ageStats(condition);
+
+        assertThat(stats.getCount()).isEqualTo(2);
+        assertThat(stats.getAgeSum()).isEqualTo(30);
+        assertThat(stats.getMinAge()).isEqualTo(10);
+        assertThat(stats.getMaxAge()).isEqualTo(20);
+    }
+
+    @Test
+    @SqlStatementBudget(3)
+    public void findAllByUsernamesTest() {
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            em.persist(new Member("member" + i, i % 50));
+            usernames.add("member" + i);
+        }
+        em.persist(new Member("member7", 77));
+        usernames.add("member7");
+        usernames.add("nobody");
+
+        //512 + 512 + 77(-> 128) 세 조각
+        UsernameLookupResult result = memberRepository.findAllByUsernames(usernames);
+
+        assertThat(result.roundTrips()).isEqualTo(3);
+        assertThat(result.found()).hasSize(1100);
+        assertThat(result.get("member7")).extracting("age").containsExactly(7, 77);
+        assertThat(result.get("member1099")).extracting("username").containsExactly("member1099");
+        assertThat(result.missing()).containsExactly("nobody");
+    }
+
+    @Test
+    public void inListChunksPadToPowerOfTwoTest() {
+        assertThat(InListChunks.split(List.of("a", "b", "c"), 4)).containsExactly(List.of("a", "b", "c", "c"));
+        assertThat(InListChunks.split(List.of("a", "b", "c", "d", "e"), 4))
+                .containsExactly(List.of("a", "b", "c", "d"), List.of("e"));
+        assertThat(InListChunks.split(List.of(), 4)).isEmpty();
+        assertThat(InListChunks.paddedSize(77)).isEqualTo(128);
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.cache.TableVersions;
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class MemberSearchCacheTest {
+
+    private static final MemberSearchKey KEY = new MemberSearchKey(null, null, null, "teamA", null, null);
+
+    MemberSearchCache cache = new MemberSearchCache(new TableVersions(), 10, Duration.ofMinutes(1));
+
+    //꺼낸 DTO 를 고쳐도 다음 조회는 적재할 때의 값을 받고, 목록 자체는 바꿀 수 없다
+    @Test
+    public void listHitIsIsolatedFromCallerChanges() {
+        List<MemberTeamDto> loaded = new ArrayList<>(List.of(new MemberTeamDto(1L, "member1", 10, 2L, "teamA")));
+        List<MemberTeamDto> first = cache.list(KEY, () -> loaded);
+        first.get(0).setUsername("changed");
+        loaded.get(0).setAge(99);
+
+        List<MemberTeamDto> second = cache.list(KEY, List::of);
+        assertThat(second).extracting("username", "age").containsExactly(tuple("member1", 10));
+        assertThatThrownBy(() -> second.add(new MemberTeamDto(3L, "member3", 30, null, null)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void pageHitIsIsolatedFromCallerChanges() {
+        PageRequest pageable = PageRequest.of(0, 10);
+        Page<MemberTeamDto> first = cache.page("searchPage", KEY, pageable, () -> new PageImpl<>(
+                List.of(new MemberTeamDto(1L, "member1", 10, 2L, "teamA")), pageable, 1));
+        first.getContent().get(0).setTeamName("changed");
+
+        Page<MemberTeamDto> second = cache.page("searchPage", KEY, pageable, Page::empty);
+        assertThat(second.getContent()).extracting("teamName").containsExactly("teamA");
+        assertThat(second.getTotalElements()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,161 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.search.UsernameTrigramIndex;
+import com.ksm.querydslstudy.support.SqlCapture;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 검색조건 조합별 실행계획 회귀 테스트.
+ * MemberSearchTemplates 로 실제 쿼리를 실행해서 Hibernate 가 만든 SQL(파라미터 값 포함)을 잡아 EXPLAIN 하고,
+ * member 테이블을 풀스캔하지 않고 인덱스로 찾는지 확인한다. 템플릿이 바뀌면 같이 검증된다.
+ */
+@SpringBootTest
+@Transactional
+class MemberSearchIndexTest {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+
+    //팀 조건만 있으면 H2 는 FK 제약조건이 만든 인덱스(FK..._INDEX_x)를 고르는데, 이것도 member.team_id 인덱스라 괜찮다
+    private static final Pattern MEMBER_INDEX_LOOKUP =
+            Pattern.compile("\"PUBLIC\"\\.\"MEMBER\" \"\\w+\"\\s*/\\* PUBLIC\\.(IDX_MEMBER_\\w+|FK\\w+|PRIMARY_KEY_\\w+):");
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberSearchTemplates templates;
+
+    @Autowired
+    SqlCapture sqlCapture;
+
+    @Autowired
+    UsernameGramFrequencies gramFrequencies;
+
+    @Autowired
+    UsernameTrigramIndex trigramIndex;
+
+    //시퀀스로 발급되는 id 와 겹치지 않도록 큰 값부터 사용
+    @BeforeEach
+    public void before() {
+        List<Object[]> teams = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            teams.add(new Object[]{1_000_000L + i, "team" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into team (team_id, name) values (?, ?)", teams);
+
+        List<Object[]> members = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            members.add(new Object[]{1_000_000L + i, "member" + i, i % 100, 1_000_000L + i % 10});
+        }
+        jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", members);
+    }
+
+    //조건이 하나라도 있는 15가지 조합, 팀명은 team 조인 필터
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15})
+    public void searchUsesIndex(int mask) {
+        for (String sql : templateSql(key(mask), null)) {
+            assertUsesMemberIndex(explain(sql));
+        }
+    }
+
+    //팀명을 TeamIdResolver 로 팀 id 로 바꾼 경우: team 조인 없이 member.team_id 인덱스로 찾는다
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 6, 7, 10, 11, 14, 15})
+    public void resolvedTeamIdUsesForeignKeyIndex(int mask) {
+        for (String sql : templateSql(key(mask), List.of(1_000_007L))) {
+            String plan = explain(sql);
+            assertUsesMemberIndex(plan);
+            assertThat(plan).as(plan).doesNotContainIgnoringCase("\"TEAM\"");
+        }
+    }
+
+    //접두 검색은 like 대신 범위 조건이라 idx_member_username 을 범위 스캔한다
+    @Test
+    public void usernamePrefixUsesIndexRange() {
+        MemberSearchKey key = new MemberSearchKey(null, "member7", null, null, null, null);
+        for (String sql : templateSql(key, null)) {
+            String plan = explain(sql);
+            assertUsesMemberIndex(plan);
+            assertThat(plan).as(plan).containsIgnoringCase("IDX_MEMBER_USERNAME");
+        }
+    }
+
+    //부분 검색은 trigram 색인에서 후보 id 를 고르고 member 는 PK 로 찾는다
+    @Test
+    public void usernameContainsUsesTrigramIndex() {
+        MemberSearchKey key = new MemberSearchKey(null, null, "ber7", null, null, null);
+        //조각 빈도 조회가 같이 잡히지 않도록 미리 캐시에 올린다
+        gramFrequencies.searchGrams(key.usernameContains());
+        for (String sql : templateSql(key, null)) {
+            String plan = explain(sql);
+            assertThat(plan).as(plan).doesNotContainIgnoringCase("PUBLIC.MEMBER.tableScan");
+            assertThat(plan).as(plan).doesNotContainIgnoringCase("PUBLIC.MEMBER_USERNAME_TRIGRAM.tableScan");
+        }
+    }
+
+    //모든 회원이 가진 "ber" 는 빼고 드문 조각으로만 후보를 고른다 (다른 테스트가 채운 캐시와 섞이지 않게 새로 만든다)
+    @Test
+    public void usernameContainsPicksRarestGrams() {
+        trigramIndex.rebuild();
+        UsernameGramFrequencies frequencies = new UsernameGramFrequencies(em, 100, Duration.ofMinutes(1));
+
+        //er7 은 member7, member7x, member7xx 111명, ber 는 1000명
+        assertThat(frequencies.searchGrams("ber7")).containsExactly("er7");
+        //r12 (11명)는 123 (1명)의 4배를 넘어서 같이 쓰지 않는다
+        assertThat(frequencies.searchGrams("ber123")).containsExactly("123");
+        //색인에 없는 조각이 있으면 그 조각만으로 결과가 없다는 것을 알 수 있다
+        assertThat(frequencies.searchGrams("berxyz")).containsExactlyInAnyOrder("erx", "rxy", "xyz");
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+
+    //content, count 쿼리를 실행해서 Hibernate 가 만든 SQL 을 잡는다
+    private List<String> templateSql(MemberSearchKey key, List<Long> teamIds) {
+        em.flush();
+        List<String> sql = sqlCapture.capture(() -> {
+            templates.content(em, key, teamIds).getResultList();
+            templates.count(em, key, teamIds).getSingleResult();
+        });
+        assertThat(sql).hasSize(2);
+        return sql;
+    }
+
+    private static MemberSearchKey key(int mask) {
+        return new MemberSearchKey(
+                (mask & USERNAME) != 0 ? "member7" : null,
+                null,
+                null,
+                (mask & TEAM_NAME) != 0 ? "team7" : null,
+                (mask & AGE_GOE) != 0 ? 90 : null,
+                (mask & AGE_LOE) != 0 ? 10 : null);
+    }
+
+    private static void assertUsesMemberIndex(String plan) {
+        assertThat(plan).as(plan).doesNotContainIgnoringCase("PUBLIC.MEMBER.tableScan");
+        assertThat(plan).as(plan).containsPattern(MEMBER_INDEX_LOOKUP);
+    }
+}
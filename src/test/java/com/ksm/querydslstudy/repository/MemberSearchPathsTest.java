@@ -0,0 +1,121 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.dto.MemberSearchCondition;
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import com.ksm.querydslstudy.search.UsernameTrigramIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 검색조건을 MemberSearchTemplates(JPQL 템플릿)와 MemberRepositoryImpl(querydsl, searchStream/ageStats)이
+ * 각각 따로 구현하므로, 조건 조합마다 두 경로의 결과가 같은지 확인한다. 한쪽 조건만 바꾸면 여기서 깨진다.
+ */
+@SpringBootTest
+@Transactional
+class MemberSearchPathsTest {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+    private static final int USERNAME_PREFIX = 1 << 4;
+    private static final int USERNAME_CONTAINS = 1 << 5;
+    private static final int COMBINATIONS = 1 << 6;
+
+    private static final long FIRST_ID = 2_000_000L;
+    private static final int MEMBERS = 40;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberSearchTemplates templates;
+
+    @Autowired
+    UsernameTrigramIndex trigramIndex;
+
+    //시퀀스로 발급되는 id 와 겹치지 않도록 큰 값부터 사용, 세 명 중 한 명은 '_' 가 들어간 이름, 네 명 중 한 명은 팀 없음
+    @BeforeEach
+    public void before() {
+        jdbcTemplate.batchUpdate("insert into team (team_id, name) values (?, ?)",
+                List.of(new Object[]{FIRST_ID, "pathsA"}, new Object[]{FIRST_ID + 1, "pathsB"}));
+
+        List<Object[]> members = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            String username = (i % 3 == 0 ? "pat_s" : "paths") + i;
+            Long teamId = i % 4 == 0 ? null : FIRST_ID + i % 2;
+            members.add(new Object[]{FIRST_ID + i, username, i * 2, teamId});
+        }
+        jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", members);
+        trigramIndex.rebuild(FIRST_ID - 1, FIRST_ID + MEMBERS);
+    }
+
+    //부분 검색어는 trigram 색인(3글자 이상)과 like(짧은 검색어) 경로, like 이스케이프('_')를 모두 거친다
+    @ParameterizedTest
+    @ValueSource(strings = {"ths1", "s1", "t_s", "_s"})
+    public void templatesMatchQuerydsl(String contains) {
+        List<Long> teamIds = List.of(FIRST_ID);
+        for (int mask = 0; mask < COMBINATIONS; mask++) {
+            MemberSearchCondition condition = condition(mask, contains);
+            MemberSearchKey key = MemberSearchKey.of(condition);
+
+            List<MemberTeamDto> expected;
+            try (Stream<MemberTeamDto> stream = memberRepository.searchStream(condition, 100)) {
+                expected = sortById(stream.toList());
+            }
+            long count = memberRepository.ageStats(condition).getCount();
+            assertThat(expected).as("mask %d", mask).hasSize((int) count);
+
+            //팀명은 조인 필터, TeamIdResolver 가 찾은 팀 id 두 가지 모두
+            List<List<Long>> teamFilters = new ArrayList<>();
+            teamFilters.add(null);
+            if (key.teamName() != null) {
+                teamFilters.add(teamIds);
+            }
+            for (List<Long> ids : teamFilters) {
+                assertThat(sortById(templates.content(em, key, ids).getResultList()))
+                        .as("mask %d, teamIds %s", mask, ids)
+                        .isEqualTo(expected);
+                assertThat(templates.count(em, key, ids).getSingleResult())
+                        .as("mask %d, teamIds %s", mask, ids)
+                        .isEqualTo(count);
+            }
+        }
+    }
+
+    private static MemberSearchCondition condition(int mask, String contains) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername((mask & USERNAME) != 0 ? "paths10" : null);
+        condition.setTeamName((mask & TEAM_NAME) != 0 ? "pathsA" : null);
+        condition.setAgeGoe((mask & AGE_GOE) != 0 ? 10 : null);
+        condition.setAgeLoe((mask & AGE_LOE) != 0 ? 50 : null);
+        condition.setUsernamePrefix((mask & USERNAME_PREFIX) != 0 ? "paths1" : null);
+        condition.setUsernameContains((mask & USERNAME_CONTAINS) != 0 ? contains : null);
+        return condition;
+    }
+
+    private static List<MemberTeamDto> sortById(List<MemberTeamDto> rows) {
+        return rows.stream()
+                .sorted(Comparator.comparing(MemberTeamDto::getMemberId))
+                .toList();
+    }
+}
@@ -0,0 +1,143 @@
+package com.ksm.querydslstudy.repository;
+
+import com.ksm.querydslstudy.cache.JdbcWriteListener;
+import com.ksm.querydslstudy.dto.MemberSearchCondition;
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.entity.Team;
+import com.ksm.querydslstudy.metrics.SqlStatementRecorder;
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.StatementInformation;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//필터는 쓰기 트랜잭션 밖에서만 쓰이므로 테스트 데이터는 커밋하고 이 테스트의 팀(filter 로 시작)만 지운다
+@SpringBootTest
+class TeamNameFilterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TeamNameFilter teamNameFilter;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    SqlStatementRecorder recorder;
+
+    @Autowired
+    JdbcWriteListener jdbcWriteListener;
+
+    @AfterEach
+    void tearDown() {
+        tx.executeWithoutResult(status -> {
+            List<Long> teamIds = em.createQuery("select t.id from Team t where t.name like 'filter%'", Long.class)
+                    .getResultList();
+            if (teamIds.isEmpty()) {
+                return;
+            }
+            em.createQuery("delete from Member m where m.team.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            em.createQuery("delete from TeamStats s where s.teamId in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    public void rejectsUnknownTeamName() {
+        tx.executeWithoutResult(status -> em.persist(new Team("filterA")));
+
+        assertThat(teamNameFilter.mightMatch(key("filterA"))).isTrue();
+        assertThat(teamNameFilter.mightMatch(key("filterNone"))).isFalse();
+        assertThat(teamNameFilter.mightMatch(key(null))).isTrue();
+    }
+
+    //Hibernate 를 거치지 않고 추가된 팀도 다음 조회에서 필터에 들어간다
+    @Test
+    public void jdbcInsertedTeamIsSeen() {
+        assertThat(teamNameFilter.mightMatch(key("filterJdbc"))).isFalse();
+
+        tx.executeWithoutResult(status ->
+                jdbcTemplate.update("insert into team (team_id, name) values (?, ?)", -1L, "filterJdbc"));
+
+        assertThat(teamNameFilter.mightMatch(key("filterJdbc"))).isTrue();
+    }
+
+    //트랜잭션 밖 insert 가 실행되는 사이 다른 스레드가 필터를 다시 만들어도, 실행 뒤 버전을 한번 더 올려서 새 팀명을 놓치지 않는다
+    //p6spy 를 거치지 않는 커넥션으로 insert 하고 리스너 호출로 실행 전후를 나눠서 그 사이에 재적재를 끼워 넣는다
+    @Test
+    public void autocommitInsertDuringRebuildIsSeen() throws SQLException {
+        String sql = "insert into team (team_id, name) values (-2, 'filterAuto')";
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:~/test", "sa", "")) {
+            StatementInformation statementInformation =
+                    new StatementInformation(ConnectionInformation.fromTestConnection(connection));
+            statementInformation.setStatementQuery(sql);
+
+            jdbcWriteListener.onBeforeAnyExecute(statementInformation);
+            assertThat(CompletableFuture.supplyAsync(() -> teamNameFilter.mightMatch(key("filterAuto"))).join())
+                    .isFalse();
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(sql);
+            }
+            jdbcWriteListener.onAfterAnyExecute(statementInformation, 0, null);
+        }
+
+        assertThat(teamNameFilter.mightMatch(key("filterAuto"))).isTrue();
+    }
+
+    //없는 팀명이면 검색, 통계, 페이징 모두 SQL 없이 빈 결과로 끝난다
+    @Test
+    public void unknownTeamIssuesNoSql() {
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("filterB");
+            em.persist(team);
+            em.persist(new Member("filter1", 10, team));
+        });
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("filterNone");
+        teamNameFilter.mightMatch(key("filterNone"));
+
+        recorder.start();
+        assertThat(memberRepository.search(condition)).isEmpty();
+        assertThat(memberRepository.ageStats(condition).getCount()).isZero();
+        assertThat(memberRepository.searchPageSimple(condition, PageRequest.of(0, 10))
+                .getTotalElements()).isZero();
+        assertThat(recorder.stop().getStatements()).isZero();
+
+        condition.setTeamName("filterB");
+        recorder.start();
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("filter1");
+        assertThat(recorder.stop().getStatements()).isPositive();
+    }
+
+    private static MemberSearchKey key(String teamName) {
+        return new MemberSearchKey(null, null, null, teamName, null, null);
+    }
+}
@@ -0,0 +1,178 @@
+package com.ksm.querydslstudy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ksm.querydslstudy.dto.BulkImportResult;
+import com.ksm.querydslstudy.dto.InvalidImportException;
+import com.ksm.querydslstudy.entity.Member;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+//chunk 마다 별도 트랜잭션으로 커밋되므로 @Transactional 롤백 대신 이 테스트가 만든 행(import 로 시작)만 지운다
+@SpringBootTest
+class MemberImportServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    MemberImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new MemberImportService(em, objectMapper, transactionManager, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'import%'").executeUpdate();
+            List<Long> teamIds = em.createQuery("select t.id from Team t where t.name like 'import%'", Long.class)
+                    .getResultList();
+            if (teamIds.isEmpty()) {
+                return;
+            }
+            em.createQuery("delete from TeamStats s where s.teamId in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+        });
+    }
+
+    //잘못된 행은 그 행만 거절되고 나머지는 등록된다
+    @Test
+    public void jsonRejectsBadRowsOnly() throws IOException {
+        BulkImportResult result = importService.importJson(body("""
+                [
+                  {"username": "import1", "age": 10, "teamName": "importA"},
+                  {"username": "import2", "age": "ten"},
+                  42,
+                  {"username": "import3"},
+                  {"age": 30},
+                  {"username": "import4", "age": 40, "teamName": "importA"}
+                ]"""));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getErrors())
+                .extracting(BulkImportResult.RowError::fromRow)
+                .containsExactly(1L, 2L, 3L, 4L);
+        assertThat(imported())
+                .extracting(Member::getUsername, Member::getAge)
+                .containsExactly(tuple("import1", 10), tuple("import4", 40));
+    }
+
+    @Test
+    public void jsonStopsAtMalformedInputAndKeepsEarlierRows() throws IOException {
+        BulkImportResult result = importService.importJson(body("""
+                [{"username": "import1", "age": 10}, {"username": "import2", "age": 20}, {"username": """));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors().get(0).message()).startsWith("malformed JSON");
+    }
+
+    @Test
+    public void jsonBodyMustBeArray() {
+        assertThatThrownBy(() -> importService.importJson(body("{\"username\": \"import1\"}")))
+                .isInstanceOf(InvalidImportException.class);
+    }
+
+    //export 가 쓰는 헤더 순서와 따옴표(쉼표, "", 줄바꿈)를 그대로 읽는다
+    @Test
+    public void csvReadsQuotedValuesByHeader() throws IOException {
+        BulkImportResult result = importService.importCsv(body(
+                "memberId,username,age,teamId,teamName\r\n"
+                        + "1,\"import,1\",10,,importA\r\n"
+                        + "2,\"import \"\"2\"\"\",20,,\r\n"
+                        + "3,\"import\n3\",30,,\"importB\"\r\n"));
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isZero();
+        assertThat(imported())
+                .extracting(Member::getUsername, Member::getAge)
+                .containsExactly(tuple("import,1", 10), tuple("import \"2\"", 20), tuple("import\n3", 30));
+    }
+
+    @Test
+    public void csvRejectsBadRows() throws IOException {
+        BulkImportResult result = importService.importCsv(body("""
+                age,username
+                10,import1
+                ten,import2
+                ,import3
+                40,import4,extra
+
+                50,import5
+                """));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors())
+                .extracting(BulkImportResult.RowError::fromRow, BulkImportResult.RowError::message)
+                .containsExactly(
+                        tuple(1L, "invalid age: ten"),
+                        tuple(2L, "age is required"),
+                        tuple(3L, "expected 2 columns but was 3"));
+    }
+
+    @Test
+    public void csvHeaderMustHaveRequiredColumns() {
+        assertThatThrownBy(() -> importService.importCsv(body("name,age\nimport1,10\n")))
+                .isInstanceOf(InvalidImportException.class);
+    }
+
+    //chunk(2행) 사이에 거절된 행이 있어도 실패 건수는 chunk 에 든 행 수만큼, 구간은 실제 행 번호로 기록한다
+    @Test
+    public void failedChunkReportsItsOwnRows() throws IOException {
+        String tooLong = "import" + "x".repeat(300);
+        BulkImportResult result = importService.importJson(body("""
+                [
+                  {"username": "import1", "age": 10},
+                  {"username": "import2", "age": "ten"},
+                  {"username": "%s", "age": 30},
+                  {"username": "import4", "age": 40},
+                  {"username": "import5", "age": 50}
+                ]""".formatted(tooLong)));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getErrors())
+                .extracting(BulkImportResult.RowError::fromRow, BulkImportResult.RowError::toRow)
+                .containsExactly(tuple(1L, 2L), tuple(0L, 3L));
+        assertThat(imported()).extracting(Member::getUsername).containsExactly("import4", "import5");
+    }
+
+    private List<Member> imported() {
+        return em.createQuery("select m from Member m where m.username like 'import%' order by m.id", Member.class)
+                .getResultList();
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,31 @@
+package com.ksm.querydslstudy.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//잘못된 설정값은 적재를 시작하기 전에 거절하므로 DB 에 남는 데이터가 없다
+@SpringBootTest
+class MemberSeedServiceTest {
+
+    @Autowired
+    MemberSeedService seedService;
+
+    @Test
+    public void rejectsInvalidArguments() {
+        assertThatThrownBy(() -> seedService.seed(0, 10, 10, 10, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("teamCount");
+        assertThatThrownBy(() -> seedService.seed(1, -1, 10, 10, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("memberCount");
+        assertThatThrownBy(() -> seedService.seed(1, 10, 0, 10, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("chunkSize");
+        assertThatThrownBy(() -> seedService.seed(1, 10, 10, 0, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("flushSize");
+    }
+}
@@ -0,0 +1,74 @@
+package com.ksm.querydslstudy.service;
+
+import com.ksm.querydslstudy.dto.TeamRosterDto;
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.entity.Team;
+import com.ksm.querydslstudy.support.SqlStatementBudget;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamRosterServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamRosterService teamRosterService;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Team teamC = new Team("teamC");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(teamC);
+        for (int i = 0; i < 9; i++) {
+            Team team = i % 3 == 0 ? teamA : i % 3 == 1 ? teamB : teamC;
+            em.persist(new Member("member" + i, i * 10, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    //팀 페이지 + count + 회원 IN 쿼리, 팀 수와 상관없이 3번
+    @Test
+    @SqlStatementBudget(3)
+    public void findRosters() {
+        Page<TeamRosterDto> result = teamRosterService.findRosters(PageRequest.of(0, 2), null);
+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).extracting("name").containsExactly("teamA", "teamB");
+        assertThat(result.getContent().get(0).getMembers()).extracting("userName")
+                .containsExactly("member0", "member3", "member6");
+    }
+
+    @Test
+    @SqlStatementBudget(3)
+    public void findRostersWithCap() {
+        Page<TeamRosterDto> result = teamRosterService.findRosters(PageRequest.of(0, 2), 2);
+
+        assertThat(result.getContent().get(1).getMembers()).extracting("userName")
+                .containsExactly("member1", "member4");
+    }
+
+    //cap 보다 회원이 적은 팀은 전부, 0 이면 아무도 안 가져온다
+    @Test
+    public void findRostersWithCapEdges() {
+        Page<TeamRosterDto> all = teamRosterService.findRosters(PageRequest.of(0, 3), 5);
+        Page<TeamRosterDto> none = teamRosterService.findRosters(PageRequest.of(0, 3), 0);
+
+        assertThat(all.getContent()).allSatisfy(roster -> assertThat(roster.getMembers()).hasSize(3));
+        assertThat(none.getContent()).allSatisfy(roster -> assertThat(roster.getMembers()).isEmpty());
+    }
+}
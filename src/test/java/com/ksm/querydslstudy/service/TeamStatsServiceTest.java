@@ -0,0 +1,159 @@
+package com.ksm.querydslstudy.service;
+
+import com.ksm.querydslstudy.dto.TeamStatsDto;
+import com.ksm.querydslstudy.entity.Member;
+import com.ksm.querydslstudy.entity.Team;
+import com.ksm.querydslstudy.repository.MemberBulkWriteEvent;
+import com.ksm.querydslstudy.repository.MemberRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+//team_stats 는 커밋 직전에 갱신되므로 @Transactional 롤백 대신 실제로 커밋하고 정리한다
+@SpringBootTest
+class TeamStatsServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Autowired
+    TeamStatsService teamStatsService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    //다른 테스트 데이터는 건드리지 않도록 이 테스트가 만든 팀(stats 로 시작)과 그 회원만 지운다
+    @AfterEach
+    void tearDown() {
+        tx.executeWithoutResult(status -> {
+            List<Long> teamIds = em.createQuery("select t.id from Team t where t.name like 'stats%'", Long.class)
+                    .getResultList();
+            if (teamIds.isEmpty()) {
+                return;
+            }
+            em.createQuery("delete from Member m where m.team.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            em.createQuery("delete from TeamStats s where s.teamId in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    public void statsFollowMemberChanges() {
+        List<Long> teamIds = tx.execute(status -> {
+            Team teamA = new Team("statsA");
+            Team teamB = new Team("statsB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("stats1", 10, teamA));
+            em.persist(new Member("stats2", 20, teamA));
+            em.persist(new Member("stats3", 30, teamB));
+            em.persist(new Member("stats4", 40, teamB));
+            return List.of(teamA.getId(), teamB.getId());
+        });
+
+        tx.executeWithoutResult(status -> {
+            Team teamB = em.find(Team.class, teamIds.get(1));
+            memberRepository.findByUsername("stats1").get(0).changeTeam(teamB);
+            memberRepository.findByUsername("stats4").get(0).setAge(45);
+            em.remove(memberRepository.findByUsername("stats3").get(0));
+        });
+
+        List<TeamStatsDto> incremental = stats(teamIds);
+        assertThat(incremental)
+                .extracting(TeamStatsDto::getTeamName, TeamStatsDto::getMemberCount, TeamStatsDto::getAgeSum,
+                        TeamStatsDto::getMinAge, TeamStatsDto::getMaxAge)
+                .containsExactly(
+                        tuple("statsA", 1L, 20L, 20, 20),
+                        tuple("statsB", 2L, 55L, 10, 45));
+
+        //재계산 결과와 증분 결과가 같아야 한다
+        teamStatsService.rebuild();
+        assertThat(stats(teamIds)).isEqualTo(incremental);
+    }
+
+    @Test
+    public void rollbackLeavesStatsUntouched() {
+        Long teamId = tx.execute(status -> {
+            Team team = new Team("statsC");
+            em.persist(team);
+            em.persist(new Member("stats5", 50, team));
+            return team.getId();
+        });
+
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("stats6", 60, em.find(Team.class, teamId)));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(stats(List.of(teamId)))
+                .extracting(TeamStatsDto::getMemberCount, TeamStatsDto::getMaxAge)
+                .containsExactly(tuple(1L, 50));
+    }
+
+    //team_stats 행이 없는 팀(JDBC 로 넣은 팀 등)은 변경분만 더하지 않고 이미 있던 회원까지 다시 계산한다
+    @Test
+    public void missingRowIsRecomputed() {
+        Long teamId = tx.execute(status -> {
+            Team team = new Team("statsD");
+            em.persist(team);
+            em.persist(new Member("stats7", 70, team));
+            em.persist(new Member("stats8", 80, team));
+            return team.getId();
+        });
+        tx.executeWithoutResult(status -> em.createQuery("delete from TeamStats s where s.teamId = :teamId")
+                .setParameter("teamId", teamId)
+                .executeUpdate());
+
+        tx.executeWithoutResult(status -> em.persist(new Member("stats9", 90, em.find(Team.class, teamId))));
+
+        assertThat(stats(List.of(teamId)))
+                .extracting(TeamStatsDto::getMemberCount, TeamStatsDto::getAgeSum,
+                        TeamStatsDto::getMinAge, TeamStatsDto::getMaxAge)
+                .containsExactly(tuple(3L, 240L, 70, 90));
+    }
+
+    //벌크 이벤트는 표시만 하고, 재계산은 rebuildIfPending(스케줄러) 에서 한번만 한다
+    @Test
+    public void bulkWriteRebuildsLater() {
+        Long teamId = tx.execute(status -> {
+            Team team = new Team("statsE");
+            em.persist(team);
+            em.persist(new Member("stats10", 10, team));
+            return team.getId();
+        });
+        tx.executeWithoutResult(status -> em.createQuery("update TeamStats s set s.memberCount = 99 where s.teamId = :teamId")
+                .setParameter("teamId", teamId)
+                .executeUpdate());
+
+        teamStatsService.onBulkWrite(new MemberBulkWriteEvent("update", 1, Long.MIN_VALUE, Long.MAX_VALUE, false));
+        teamStatsService.onBulkWrite(new MemberBulkWriteEvent("update", 1, Long.MIN_VALUE, Long.MAX_VALUE, false));
+        assertThat(stats(List.of(teamId))).extracting(TeamStatsDto::getMemberCount).containsExactly(99L);
+
+        teamStatsService.rebuildIfPending();
+        assertThat(stats(List.of(teamId))).extracting(TeamStatsDto::getMemberCount).containsExactly(1L);
+    }
+
+    private List<TeamStatsDto> stats(List<Long> teamIds) {
+        return teamStatsService.findAll().stream()
+                .filter(s -> teamIds.contains(s.getTeamId()))
+                .toList();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ksm.querydslstudy.snapshot;
+
+import com.ksm.querydslstudy.cache.TableVersions;
+import com.ksm.querydslstudy.dto.AgeStatsDto;
+import com.ksm.querydslstudy.dto.MemberTeamDto;
+import com.ksm.querydslstudy.repository.MemberSearchKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class MemberSnapshotTest {
+
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:snapshot;DB_CLOSE_DELAY=-1", "sa", ""));
+    TableVersions tableVersions = new TableVersions();
+    MemberSnapshot snapshot = new MemberSnapshot(jdbcTemplate, tableVersions, true);
+
+    @BeforeEach
+    public void before() {
+        jdbcTemplate.execute("create table team (team_id bigint primary key, name varchar(255))");
+        jdbcTemplate.execute("create table member (member_id bigint primary key, username varchar(255), age int, team_id bigint)");
+        jdbcTemplate.update("insert into team values (1, 'teamA'), (2, 'teamB')");
+        jdbcTemplate.update("insert into member values (1, 'member1', 10, 1), (2, 'member2', 20, 1), " +
+                "(3, 'member3', 30, 2), (4, 'member4', 40, 2), (5, 'member5', 50, null)");
+        snapshot.reload();
+    }
+
+    @AfterEach
+    public void after() {
+        jdbcTemplate.execute("drop table member");
+        jdbcTemplate.execute("drop table team");
+        snapshot.shutdown();
+    }
+
+    @Test
+    public void answersAgeAndTeamConditions() {
+        MemberSearchKey key = new MemberSearchKey(null, null, null, "teamB", 35, null);
+
+        assertThat(snapshot.canAnswer(key)).isTrue();
+        assertThat(snapshot.content(key, 0, 10))
+                .extracting(MemberTeamDto::getUsername, MemberTeamDto::getTeamName)
+                .containsExactly(tuple("member4", "teamB"));
+        assertThat(snapshot.count(new MemberSearchKey(null, null, null, null, 20, null))).isEqualTo(4);
+
+        AgeStatsDto stats = snapshot.ageStats(new MemberSearchKey(null, null, null, null, null, null));
+        assertThat(stats.getCount()).isEqualTo(5);
+        assertThat(stats.getAgeSum()).isEqualTo(150);
+        assertThat(stats.getMinAge()).isEqualTo(10);
+        assertThat(stats.getMaxAge()).isEqualTo(50);
+    }
+
+    @Test
+    public void usernameConditionsGoToDatabase() {
+        assertThat(snapshot.canAnswer(new MemberSearchKey("member1", null, null, null, null, null))).isFalse();
+        assertThat(snapshot.canAnswer(new MemberSearchKey(null, "mem", null, null, null, null))).isFalse();
+    }
+
+    @Test
+    public void appliesCommittedChanges() {
+        snapshot.apply(List.of(
+                SnapshotChange.teamPut(3, "teamC"),
+                SnapshotChange.memberPut(6, "member6", 60, 3L),
+                SnapshotChange.memberPut(1, "member1", 15, 2L),
+                SnapshotChange.memberRemove(4)));
+
+        MemberSearchKey teamB = new MemberSearchKey(null, null, null, "teamB", null, null);
+        assertThat(snapshot.content(teamB, 0, 10))
+                .extracting(MemberTeamDto::getUsername, MemberTeamDto::getAge)
+                .containsExactly(tuple("member1", 15), tuple("member3", 30));
+        assertThat(snapshot.count(new MemberSearchKey(null, null, null, "teamC", null, null))).isEqualTo(1);
+        assertThat(snapshot.count(new MemberSearchKey(null, null, null, null, null, null))).isEqualTo(5);
+    }
+
+    @Test
+    public void bulkWriteMakesSnapshotStale() {
+        MemberSearchKey key = new MemberSearchKey(null, null, null, null, 20, null);
+        tableVersions.bumpBulk("member");
+
+        assertThat(snapshot.canAnswer(key)).isFalse();
+    }
+
+    @Test
+    public void pagesInIdOrder() {
+        MemberSearchKey all = new MemberSearchKey(null, null, null, null, null, null);
+
+        assertThat(snapshot.content(all, 2, 2))
+                .extracting(MemberTeamDto::getMemberId)
+                .containsExactly(3L, 4L);
+    }
+}
@@ -0,0 +1,37 @@
+package com.ksm.querydslstudy.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 테스트용 p6spy 리스너, {@link #capture(Runnable)} 동안 실행된 SQL 을 바인딩 값이 들어간 형태로 모은다.
+ * 별도 컨텍스트를 만들지 않도록 @TestConfiguration 대신 컴포넌트로 등록한다 (테스트 DB 는 파일이라 컨텍스트마다 스키마를 다시 만든다).
+ */
+@Component
+public class SqlCapture extends SimpleJdbcEventListener {
+
+    private final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+    public List<String> capture(Runnable action) {
+        captured.set(new ArrayList<>());
+        try {
+            action.run();
+            return captured.get();
+        } finally {
+            captured.remove();
+        }
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        List<String> sql = captured.get();
+        if (sql != null) {
+            sql.add(statementInformation.getSqlWithValues());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.ksm.querydslstudy.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 테스트 메서드 본문(및 그 안의 MockMvc 요청)이 실행하는 select 문장 수 상한.
+ * 지연로딩 N+1 이 생기면 문장 수가 데이터 건수만큼 늘어나 이 상한을 넘기므로 테스트가 실패한다.
+ * 시퀀스 조회(next value for)는 세지 않는다.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(SqlStatementBudgetExtension.class)
+public @interface SqlStatementBudget {
+
+    //허용하는 최대 select 수
+    int value();
+
+    //true 면 insert/update/delete 까지 포함한 전체 문장 수로 비교
+    boolean includeWrites() default false;
+}
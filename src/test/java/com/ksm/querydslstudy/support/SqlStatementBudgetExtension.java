@@ -0,0 +1,67 @@
+package com.ksm.querydslstudy.support;
+
+import com.ksm.querydslstudy.metrics.SqlStatementRecorder;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * {@link SqlStatementBudget} 처리.
+ * BeforeEach 의 데이터 준비는 제외하고 테스트 메서드 실행 구간만 센다.
+ */
+public class SqlStatementBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        recorder(context).start();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        SqlStatementRecorder.Recording recording = recorder(context).stop();
+        //테스트가 이미 실패했으면 원래 실패를 가리지 않는다
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+        SqlStatementBudget budget = findBudget(context);
+        if (budget == null) {
+            return;
+        }
+        List<String> counted = recording.getSql().stream()
+                .filter(sql -> budget.includeWrites() || isQuery(sql))
+                .filter(sql -> !isSequenceCall(sql))
+                .toList();
+        if (counted.size() > budget.value()) {
+            fail(String.format("SQL statement budget exceeded: expected at most %d but was %d%n%s",
+                    budget.value(), counted.size(),
+                    counted.stream().map(sql -> "  " + sql).collect(Collectors.joining(System.lineSeparator()))));
+        }
+    }
+
+    private SqlStatementBudget findBudget(ExtensionContext context) {
+        return AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), SqlStatementBudget.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), SqlStatementBudget.class))
+                .orElse(null);
+    }
+
+    private SqlStatementRecorder recorder(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context).getBean(SqlStatementRecorder.class);
+    }
+
+    private static boolean isQuery(String sql) {
+        return sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select");
+    }
+
+    private static boolean isSequenceCall(String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        return lower.contains("next value for") || lower.contains("nextval(");
+    }
+}